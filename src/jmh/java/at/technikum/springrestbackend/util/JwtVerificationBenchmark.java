@@ -0,0 +1,63 @@
+package at.technikum.springrestbackend.util;
+
+import at.technikum.springrestbackend.property.JwtProperties;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying an access token with jjwt ({@link JwtUtil#getClaims}) against the
+ * specialised {@link Hs256JwtVerifier}. Run with {@code mvn -Pbenchmark verify}; the
+ * {@code gc} profiler reports the allocation per verification (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jjwt;
+    private JwtUtil hs256;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jjwt = jwtUtil(JwtProperties.Verifier.JJWT);
+        hs256 = jwtUtil(JwtProperties.Verifier.HS256);
+        token = jjwt.generateToken(UUID.randomUUID(), "benchmark@example.com", "USER", 1);
+    }
+
+    @Benchmark
+    public Claims jjwtGetClaims() {
+        return jjwt.getClaims(token);
+    }
+
+    @Benchmark
+    public Claims hs256Verify() {
+        return hs256.verify(token);
+    }
+
+    private static JwtUtil jwtUtil(JwtProperties.Verifier verifier) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("averygoodsecretnoonewilleverguessinamillionyears");
+        properties.setAccessTokenTtl(Duration.ofHours(1));
+        properties.setVerifier(verifier);
+        JwtUtil jwtUtil = new JwtUtil(properties);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,56 @@
+package at.technikum.springrestbackend.cache;
+
+import at.technikum.springrestbackend.entity.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache in front of product lookups by ID. Misses are not cached.
+ * Hit, miss and eviction counts are published as "cache.*" metrics tagged cache=products.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final Cache<UUID, Product> cache;
+
+    public ProductCache(@Value("${products.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${products.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Product> get(UUID id, Function<UUID, Optional<Product>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void evict(UUID id) {
+        cache.invalidate(id);
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+}
@@ -0,0 +1,88 @@
+package at.technikum.springrestbackend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt work factor at startup: hashes a sample at min-cost, then takes the highest
+ * cost whose estimated time (doubling per step) stays within target-time, clamped to
+ * [min-cost, max-cost]. A non-zero security.password-hashing.cost skips the measurement; every
+ * configured cost must lie within BCrypt's 4..31 range.
+ * The chosen cost is published as the "auth.password.bcrypt.cost" gauge.
+ */
+@Component
+public class BCryptCostCalibrator implements MeterBinder {
+
+    private static final int SAMPLES = 3;
+    // Log rounds BCrypt accepts
+    private static final int LOWEST_COST = 4;
+    private static final int HIGHEST_COST = 31;
+
+    private final int cost;
+
+    public BCryptCostCalibrator(
+            @Value("${security.password-hashing.target-time:250ms}") Duration targetTime,
+            @Value("${security.password-hashing.min-cost:10}") int minCost,
+            @Value("${security.password-hashing.max-cost:14}") int maxCost,
+            @Value("${security.password-hashing.cost:0}") int fixedCost) {
+        if (fixedCost != 0) {
+            checkCost("security.password-hashing.cost", fixedCost);
+        }
+        checkCost("security.password-hashing.min-cost", minCost);
+        checkCost("security.password-hashing.max-cost", maxCost);
+        if (minCost > maxCost) {
+            throw new IllegalArgumentException(
+                    "security.password-hashing.min-cost must not exceed max-cost");
+        }
+        this.cost = fixedCost != 0
+                ? fixedCost
+                : chooseCost(measure(minCost), targetTime.toNanos(), minCost, maxCost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.password.bcrypt.cost", this, BCryptCostCalibrator::getCost)
+                .description("BCrypt work factor used for new password hashes")
+                .register(registry);
+    }
+
+    // Highest cost whose estimated hash time does not exceed the target
+    static int chooseCost(long nanosAtMinCost, long targetNanos, int minCost, int maxCost) {
+        int chosen = minCost;
+        long estimate = Math.max(nanosAtMinCost, 1);
+        while (chosen < maxCost && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            chosen++;
+        }
+        return chosen;
+    }
+
+    private static void checkCost(String property, int cost) {
+        if (cost < LOWEST_COST || cost > HIGHEST_COST) {
+            throw new IllegalArgumentException(property + " must be between " + LOWEST_COST
+                    + " and " + HIGHEST_COST + ", was " + cost);
+        }
+    }
+
+    // Fastest of a few runs, so a JIT warm-up or GC pause does not skew the result
+    private static long measure(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-password", salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
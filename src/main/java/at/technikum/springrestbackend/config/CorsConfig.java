@@ -1,24 +1,50 @@
 package at.technikum.springrestbackend.config;
 
+import at.technikum.springrestbackend.security.cors.CorsPreflightFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class CorsConfig {
 
+    // How long browsers may cache a preflight result
+    @Value("${cors.max-age:1h}")
+    private Duration maxAge;
+
+    // Picked up by http.cors(), so actual requests get their headers without a handler lookup
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
-        return new WebMvcConfigurer() {
-            @Override
-            public void addCorsMappings(CorsRegistry registry) {
-                registry.addMapping("/**") // Allow requests to all endpoints
-                        .allowedOrigins("http://localhost:8081", "http://localhost:8080") // Frontend origin
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH") // HTTP methods
-                        .allowedHeaders("*") // Allow all headers
-                        .allowCredentials(true); // Allow cookies/authorization headers
-            }
-        };
+    public CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", corsConfiguration()); // Allow requests to all endpoints
+        return source;
+    }
+
+    // Preflights are answered ahead of the security filter chain
+    @Bean
+    public FilterRegistrationBean<CorsPreflightFilter> corsPreflightFilter() {
+        FilterRegistrationBean<CorsPreflightFilter> registration =
+                new FilterRegistrationBean<>(new CorsPreflightFilter(corsConfiguration()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private CorsConfiguration corsConfiguration() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        // Frontend origins
+        configuration.setAllowedOrigins(List.of("http://localhost:8081", "http://localhost:8080"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
+        configuration.setAllowedHeaders(List.of("*")); // Allow all headers
+        configuration.setAllowCredentials(true); // Allow cookies/authorization headers
+        configuration.setMaxAge(maxAge);
+        return configuration;
     }
 }
@@ -1,5 +1,7 @@
 package at.technikum.springrestbackend.config;
 
+import at.technikum.springrestbackend.service.MinioMultipartClient;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -20,11 +22,26 @@ public class MinioConfig {
     @Value("${minio.password}")
     private String minioPassword;
 
+    // Fixed signing region, so presigning never has to look up the bucket location
+    @Value("${minio.region:us-east-1}")
+    private String minioRegion;
+
     @Bean
     public MinioClient minioClient() {
         return MinioClient.builder()
                 .endpoint(String.format("%s:%d", minioUrl, minioPort))
                 .credentials(minioUser, minioPassword)
+                .region(minioRegion)
                 .build();
     }
+
+    // Async client for uploading multipart parts concurrently (see MultipartUploader)
+    @Bean
+    public MinioMultipartClient minioMultipartClient() {
+        return new MinioMultipartClient(MinioAsyncClient.builder()
+                .endpoint(String.format("%s:%d", minioUrl, minioPort))
+                .credentials(minioUser, minioPassword)
+                .region(minioRegion)
+                .build());
+    }
 }
@@ -1,6 +1,7 @@
 package at.technikum.springrestbackend.config;
 
 import at.technikum.springrestbackend.security.jwt.JwtAuthenticationFilter;
+import at.technikum.springrestbackend.security.ratelimit.AuthRateLimitFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -18,26 +19,32 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity(prePostEnabled = true) // Enables @PreAuthorize and @PostAuthorize
 public class SecurityConfig {
 
+    // Reachable without a token; the JWT filter skips these entirely
+    public static final String[] PUBLIC_PATHS = {"/auth/**"};
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                                   AuthRateLimitFilter authRateLimitFilter) throws Exception {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers(PUBLIC_PATHS).permitAll()
                         .requestMatchers("/products").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/users").hasAnyRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Throttled login/register attempts are rejected before any lookup or hashing
+                .addFilterBefore(authRateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
 
 
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(BCryptCostCalibrator bcryptCostCalibrator) {
+        return new BCryptPasswordEncoder(bcryptCostCalibrator.getCost());
     }
 }
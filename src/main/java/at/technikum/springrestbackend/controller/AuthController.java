@@ -1,49 +1,88 @@
 package at.technikum.springrestbackend.controller;
 
+import at.technikum.springrestbackend.dto.AuthTokens;
 import at.technikum.springrestbackend.entity.User;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import at.technikum.springrestbackend.service.PasswordHashingService;
+import at.technikum.springrestbackend.service.RefreshTokenService;
 import at.technikum.springrestbackend.service.UserService;
-import at.technikum.springrestbackend.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     private final UserService userService;
-    private final JwtUtil jwtUtil;
+    private final PasswordHashingService passwordHashingService;
+    private final RefreshTokenService refreshTokenService;
+    private final Executor databaseExecutor;
 
-    public AuthController(UserService userService, JwtUtil jwtUtil) {
+    public AuthController(UserService userService,
+                          PasswordHashingService passwordHashingService,
+                          RefreshTokenService refreshTokenService,
+                          @Qualifier("applicationTaskExecutor") Executor databaseExecutor) {
         this.userService = userService;
-        this.jwtUtil = jwtUtil;
+        this.passwordHashingService = passwordHashingService;
+        this.refreshTokenService = refreshTokenService;
+        this.databaseExecutor = databaseExecutor;
     }
 
+    // Completes asynchronously once the password is hashed, without holding a request thread
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
-        userService.registerUser(user);
-        return ResponseEntity.ok(Map.of("message", "User registered successfully"));
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
+        return userService.registerUser(user)
+                .<ResponseEntity<?>>thenApply(saved -> ResponseEntity.ok(Map.of("message", "User registered successfully")));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         String usernameOrEmail = loginRequest.get("usernameOrEmail");
         String password = loginRequest.get("password");
 
-        // Try finding the user by email first, then username
-        User user = userService.findByEmail(usernameOrEmail)
-                .orElseGet(() -> userService.findByUsername(usernameOrEmail)
-                        .orElseThrow(() -> new ResourceNotFoundException("Invalid credentials")));
+        // Email or username, resolved in one query
+        User user = userService.findByEmailOrUsername(usernameOrEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Invalid credentials"));
 
-        if (!new BCryptPasswordEncoder().matches(password, user.getPassword())) {
-            throw new ResourceNotFoundException("Invalid credentials");
-        }
+        // BCrypt runs on the bounded password hashing pool, the refresh token INSERT on the
+        // application executor, so it never holds one of the few hashing threads
+        return passwordHashingService.matches(password, user.getPassword())
+                .<ResponseEntity<?>>thenApplyAsync(matches -> {
+                    if (!matches) {
+                        throw new ResourceNotFoundException("Invalid credentials");
+                    }
+                    upgradePasswordHash(user, password);
+                    AuthTokens tokens = refreshTokenService.issueTokens(user);
+                    return ResponseEntity.ok(Map.of("token", tokens.accessToken(), "refreshToken", tokens.refreshToken(),
+                            "expiresIn", tokens.expiresIn(), "role", user.getRole(), "id", user.getId(), "isActive", user.getIsActive()));
+                }, databaseExecutor);
+    }
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
-        return ResponseEntity.ok(Map.of("token", token, "role", user.getRole(), "id", user.getId(), "isActive", user.getIsActive()));
+    // Exchange a refresh token for a new access token and a new refresh token (no password check)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> refreshRequest) {
+        AuthTokens tokens = refreshTokenService.refresh(refreshRequest.get("refreshToken"));
+        return ResponseEntity.ok(Map.of("token", tokens.accessToken(), "refreshToken", tokens.refreshToken(),
+                "expiresIn", tokens.expiresIn()));
     }
-}
 
+    // Rehash in the background when the stored hash uses another BCrypt cost than the current one
+    private void upgradePasswordHash(User user, String password) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            passwordHashingService.encode(password)
+                    .thenAcceptAsync(encoded -> userService.updatePasswordHash(user.getId(), encoded),
+                            databaseExecutor);
+        } catch (ServiceUnavailableException e) {
+            // Pool is saturated: keep the old hash, the next login will try again
+        }
+    }
+}
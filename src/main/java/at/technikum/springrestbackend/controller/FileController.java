@@ -2,16 +2,20 @@ package at.technikum.springrestbackend.controller;
 
 import at.technikum.springrestbackend.entity.Product;
 import at.technikum.springrestbackend.entity.User;
-import at.technikum.springrestbackend.repository.ProductRepository;
 import at.technikum.springrestbackend.repository.UserRepository;
 import at.technikum.springrestbackend.service.FileService;
+import at.technikum.springrestbackend.service.ImageVariantService;
+import at.technikum.springrestbackend.service.ProductService;
 import at.technikum.springrestbackend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,22 +25,26 @@ import java.util.UUID;
 public class FileController {
 
     private final FileService fileService;
-    private final ProductRepository productRepository;
+    private final ProductService productService;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final ImageVariantService imageVariantService;
 
-    public FileController(FileService fileService, ProductRepository productRepository, UserRepository userRepository, UserService userService) {
+    public FileController(FileService fileService, ProductService productService, UserRepository userRepository, UserService userService,
+                          ImageVariantService imageVariantService) {
         this.fileService = fileService;
-        this.productRepository = productRepository;
+        this.productService = productService;
         this.userRepository = userRepository;
         this.userService = userService;
+        this.imageVariantService = imageVariantService;
     }
 
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping("/products/{id}/image")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<?> getProductImage(@PathVariable UUID id) {
-        Optional<Product> productOpt = productRepository.findById(id);
+    public ResponseEntity<?> getProductImage(@PathVariable UUID id,
+                                             @RequestParam(value = "w", required = false) Integer width) {
+        Optional<Product> productOpt = productService.findProduct(id);
         if (productOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -53,24 +61,50 @@ public class FileController {
                 ? imageUrl.substring("pictures/".length())
                 : imageUrl;
 
-        System.out.println("Corrected Object Key for presigned URL: " + objectKey);
-
-        String presignedUrl = fileService.getPresignedUrl(objectKey);
+        // Smallest stored variant that still covers the requested width (?w=), else the original
+        String presignedUrl = fileService.getPresignedUrl(imageVariantService.resolve(objectKey, width));
         return ResponseEntity.ok(presignedUrl);
     }
 
+    // Presigned image URLs of many products at once (?ids=a,b,c&w=320), keyed by product ID;
+    // products without an image are left out
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping("/products/images")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Map<UUID, String>> getProductImages(
+            @RequestParam List<UUID> ids,
+            @RequestParam(value = "w", required = false) Integer width) {
+        return ResponseEntity.ok(productService.getImageUrls(ids, width));
+    }
+
     @PostMapping("/products/{id}/upload-image")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> uploadProductImage(@PathVariable UUID id, @RequestParam("file") MultipartFile file) {
         try {
-            Optional<Product> productOpt = productRepository.findById(id);
+            Optional<Product> productOpt = productService.findProduct(id);
             if (productOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             String imageUrl = fileService.uploadFile(file);
-            Product product = productOpt.get();
-            product.setImageUrl(imageUrl);
-            productRepository.save(product);
+            productService.updateImageUrl(id, imageUrl);
+            return ResponseEntity.ok(Map.of("message", "Image uploaded successfully", "imageUrl", imageUrl));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Raw image body, streamed to MinIO while it is read; the file name comes from X-File-Name
+    @PutMapping(value = "/products/{id}/image", consumes = "image/*")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> streamProductImage(@PathVariable UUID id, HttpServletRequest request,
+                                                @RequestHeader(value = "X-File-Name", defaultValue = "image") String fileName)
+            throws IOException {
+        try {
+            if (productService.findProduct(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String imageUrl = fileService.uploadStream(request.getInputStream(), request.getContentType(), fileName);
+            productService.updateImageUrl(id, imageUrl);
             return ResponseEntity.ok(Map.of("message", "Image uploaded successfully", "imageUrl", imageUrl));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -80,7 +114,8 @@ public class FileController {
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping("/users/{id}/profile-picture")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<?> getUserProfilePicture(@PathVariable UUID id) {
+    public ResponseEntity<?> getUserProfilePicture(@PathVariable UUID id,
+                                                   @RequestParam(value = "w", required = false) Integer width) {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -107,11 +142,8 @@ public class FileController {
                 ? profilePictureUrl.substring("pictures/".length())
                 : profilePictureUrl;
 
-        System.out.println("Corrected Object Key: " + objectKey);
-
-        // Generate the presigned URL using the sanitized object key
-        String presignedUrl = fileService.getPresignedUrl(objectKey);
-        System.out.println("Generated Presigned URL: " + presignedUrl);
+        // Generate the presigned URL for the best fitting variant of the sanitized object key
+        String presignedUrl = fileService.getPresignedUrl(imageVariantService.resolve(objectKey, width));
 
         // Return the presigned URL without further modification
         return ResponseEntity.ok(presignedUrl);
@@ -141,6 +173,28 @@ public ResponseEntity<?> uploadProfilePicture(@PathVariable UUID id, @RequestPar
     userRepository.save(user);
     return ResponseEntity.ok("Profile picture uploaded successfully");
 }
+
+    // Raw image body, streamed to MinIO while it is read; the file name comes from X-File-Name
+    @PutMapping(value = "/users/{id}/profile-picture", consumes = "image/*")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<?> streamProfilePicture(@PathVariable UUID id, HttpServletRequest request,
+                                                  @RequestHeader(value = "X-File-Name", defaultValue = "image") String fileName)
+            throws IOException {
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!userService.isAdmin() && !userService.getAuthenticatedUserId().equals(id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "You are not authorized to view information about this user"));
+        }
+
+        String profilePictureUrl = fileService.uploadStream(request.getInputStream(), request.getContentType(), fileName);
+        User user = userOpt.get();
+        user.setProfilePictureUrl(profilePictureUrl);
+        userRepository.save(user);
+        return ResponseEntity.ok("Profile picture uploaded successfully");
+    }
 }
 
 
@@ -1,17 +1,31 @@
 package at.technikum.springrestbackend.controller;
 
+import at.technikum.springrestbackend.dto.BulkDeleteDto;
+import at.technikum.springrestbackend.dto.BulkRepriceDto;
+import at.technikum.springrestbackend.dto.BulkStockDto;
+import at.technikum.springrestbackend.dto.CatalogVersion;
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.dto.CursorPage;
+import at.technikum.springrestbackend.dto.ImportResult;
 import at.technikum.springrestbackend.dto.ProductDto;
+import at.technikum.springrestbackend.dto.ProductFilter;
 import at.technikum.springrestbackend.entity.Product;
+import at.technikum.springrestbackend.service.ProductImportService;
 import at.technikum.springrestbackend.service.ProductService;
+import at.technikum.springrestbackend.util.HttpValidators;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -24,26 +38,78 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService) {
         this.productService = productService;
+        this.productImportService = productImportService;
     }
 
     // GET all products
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public List<Product> getProducts(HttpServletRequest request) {
+    public ResponseEntity<List<Product>> getProducts(HttpServletRequest request, WebRequest webRequest) {
         System.out.println("Authorization Header: " + request.getHeader("Authorization"));
-        return productService.getAllProducts();
+        if (catalogNotModified(webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(productService.getAllProducts());
+    }
+
+    // GET all products with only the requested columns (e.g. ?fields=id,name,price,imageUrl);
+    // imageSrc is only served page by page through /products/sorted
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping(params = "fields")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getProductFields(
+            @RequestParam List<String> fields,
+            WebRequest webRequest) {
+        if (!ProductService.requestsImageSrc(fields) && catalogNotModified(webRequest, fields)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(productService.getAllProductFields(fields));
+    }
+
+    // GET all products as a streamed NDJSON export (constant memory, independent of catalog size)
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        productService.exportProducts(response.getOutputStream());
+    }
+
+    // GET product counts and price ranges per category
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping("/facets")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<CategoryFacet>> getCategoryFacets() {
+        return ResponseEntity.ok(productService.getCategoryFacets());
+    }
+
+    // GET products matching a full-text query, best match first
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Page<Product>> searchProducts(@RequestParam("q") String query,
+                                                        Pageable pageable) {
+        Page<Product> products = productService.searchProducts(query, pageable);
+        return ResponseEntity.ok(products);
     }
 
     // GET a single product by ID
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Product> getProduct(@PathVariable UUID id) {
+    public ResponseEntity<Product> getProduct(@PathVariable UUID id, WebRequest webRequest) {
         Product product = productService.getProduct(id);
+        String eTag = HttpValidators.eTag(product.getId(), product.getUpdatedAt());
+        long lastModified = HttpValidators.lastModified(product.getUpdatedAt());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(product);
     }
 
@@ -51,11 +117,55 @@ public class ProductController {
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping("/sorted")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Page<Product>> getProductsWithSorting(Pageable pageable) {
+    public ResponseEntity<Page<Product>> getProductsWithSorting(Pageable pageable, WebRequest webRequest) {
+        if (catalogNotModified(webRequest, pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         Page<Product> products = productService.getProductsWithSorting(pageable);
         return ResponseEntity.ok(products);
     }
 
+    // GET a sorted page of products with only the requested columns; the imageSrc field embeds
+    // the presigned image URL (variant fitting ?w= if given)
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping(value = "/sorted", params = "fields")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Page<Map<String, Object>>> getProductFieldsWithSorting(
+            @RequestParam List<String> fields,
+            @RequestParam(value = "w", required = false) Integer width,
+            Pageable pageable,
+            WebRequest webRequest) {
+        if (!ProductService.requestsImageSrc(fields) && catalogNotModified(webRequest, fields,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(
+                productService.getProductFieldsWithSorting(fields, pageable, width));
+    }
+
+    // GET products filtered by category, price range, stock and creation date, sorted by
+    // name, price, createdAt or id (e.g. ?category=Books&minPrice=10&inStock=true&sort=price)
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping("/filter")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Page<Product>> filterProducts(ProductFilter filter, Pageable pageable) {
+        return ResponseEntity.ok(productService.filterProducts(filter, pageable));
+    }
+
+    // GET products sorted by a field, page by page with an opaque cursor (pass an empty
+    // cursor for the first page, then the returned nextCursor; the page number is ignored)
+    @CrossOrigin(origins = "http://localhost:8081")
+    @GetMapping(value = "/sorted", params = "cursor")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<Product>> getProductsAfterCursor(
+            @RequestParam(required = false) String cursor,
+            Pageable pageable) {
+        CursorPage<Product> products = productService.getProductsAfterCursor(
+                cursor, pageable.getSort(), pageable.getPageSize());
+        return ResponseEntity.ok(products);
+    }
+
 
     // POST to add a new product
     @CrossOrigin(origins = "http://localhost:8081")
@@ -66,6 +176,53 @@ public class ProductController {
         return ResponseEntity.created(URI.create("/products/" + uuid)).build();
     }
 
+    // POST a NDJSON or CSV (header row required) product feed, optionally gzip encoded
+    @CrossOrigin(origins = "http://localhost:8081")
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportResult> importProducts(HttpServletRequest request) throws IOException {
+        String contentType = request.getContentType();
+        boolean csv = contentType != null && contentType.contains("csv");
+        boolean gzip = "gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"));
+        ImportResult result = productImportService.importProducts(request.getInputStream(), csv, gzip);
+        return ResponseEntity.ok(result);
+    }
+
+    // POST to change the price of a whole category by a percentage
+    @CrossOrigin(origins = "http://localhost:8081")
+    @PostMapping("/bulk/reprice")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> repriceCategory(@RequestBody @Valid BulkRepriceDto request) {
+        int updated = productService.repriceCategory(request.category(), request.percent());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    // POST to set the stock of many products at once
+    @CrossOrigin(origins = "http://localhost:8081")
+    @PostMapping("/bulk/stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> updateStock(@RequestBody @Valid BulkStockDto request) {
+        int updated = productService.updateStock(request.ids(), request.stockQuantity());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    // POST to delete many products by ID list or by category
+    @CrossOrigin(origins = "http://localhost:8081")
+    @PostMapping("/bulk/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> deleteProducts(@RequestBody @Valid BulkDeleteDto request) {
+        int deleted;
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            deleted = productService.removeProducts(request.ids());
+        } else if (request.category() != null && !request.category().isBlank()) {
+            deleted = productService.removeProductsByCategory(
+                    request.category(), Boolean.TRUE.equals(request.outOfStockOnly()));
+        } else {
+            throw new IllegalArgumentException("Either ids or category must be given");
+        }
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
     // PATCH to update part of a product
     @CrossOrigin(origins = "http://localhost:8081")
     @PatchMapping("/{id}")
@@ -102,4 +259,15 @@ public class ProductController {
         productService.removeProduct(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // ETag derived from the catalog version plus whatever shapes the response body. No
+    // Last-Modified: MAX(updatedAt) does not move on deletes, so If-Modified-Since would 304
+    private boolean catalogNotModified(WebRequest webRequest, Object... requestParts) {
+        CatalogVersion version = productService.getCatalogVersion();
+        Object[] parts = new Object[requestParts.length + 2];
+        parts[0] = version.productCount();
+        parts[1] = version.lastUpdatedAt();
+        System.arraycopy(requestParts, 0, parts, 2, requestParts.length);
+        return webRequest.checkNotModified(HttpValidators.eTag(parts));
+    }
+}
@@ -3,12 +3,15 @@ package at.technikum.springrestbackend.controller;
 import at.technikum.springrestbackend.dto.UserDto;
 import at.technikum.springrestbackend.entity.User;
 import at.technikum.springrestbackend.service.UserService;
+import at.technikum.springrestbackend.util.HttpValidators;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,7 +34,7 @@ public class UserController {
     @CrossOrigin(origins = "http://localhost:8081")
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<?> getUser(@PathVariable UUID id) {
+    public ResponseEntity<?> getUser(@PathVariable UUID id, WebRequest webRequest) {
         // Get the currently authenticated user's ID
         UUID authenticatedUserId = userService.getAuthenticatedUserId();
 
@@ -41,8 +44,15 @@ public class UserController {
                     .body(Map.of("error", "You are not authorized to view information about this user"));
         }
 
-        // Retrieve and return the user data
+        // Retrieve the user data; the ownership check above needed no query
         User user = userService.getUser(id);
+
+        // Answer conditional requests from the update timestamp without sending the body
+        LocalDateTime updatedAt = user.getUpdatedAt();
+        if (updatedAt != null && webRequest.checkNotModified(
+                HttpValidators.eTag(id, updatedAt), HttpValidators.lastModified(updatedAt))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(user);
     }
 
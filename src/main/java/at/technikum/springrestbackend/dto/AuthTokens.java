@@ -0,0 +1,8 @@
+package at.technikum.springrestbackend.dto;
+
+public record AuthTokens(
+        String accessToken,
+        String refreshToken,
+        long expiresIn
+) {
+}
@@ -0,0 +1,14 @@
+package at.technikum.springrestbackend.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+// Either a list of IDs or a category (optionally only its out-of-stock products)
+public record BulkDeleteDto(
+        @Size(max = 10000, message = "At most 10000 products per request") List<UUID> ids,
+        String category,
+        Boolean outOfStockOnly
+) {
+}
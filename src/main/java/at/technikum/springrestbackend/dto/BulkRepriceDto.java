@@ -0,0 +1,13 @@
+package at.technikum.springrestbackend.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkRepriceDto(
+        @NotBlank(message = "Category cannot be blank") String category,
+        @NotNull(message = "Percentage cannot be null")
+        @DecimalMin(value = "-100", inclusive = false, message = "Percentage must be greater than -100")
+        Double percent
+) {
+}
@@ -0,0 +1,17 @@
+package at.technikum.springrestbackend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkStockDto(
+        @NotEmpty(message = "Product IDs cannot be empty")
+        @Size(max = 10000, message = "At most 10000 products per request") List<UUID> ids,
+        @NotNull(message = "Stock quantity cannot be null")
+        @Min(value = 0, message = "Stock quantity must be zero or a positive value") Integer stockQuantity
+) {
+}
@@ -0,0 +1,9 @@
+package at.technikum.springrestbackend.dto;
+
+import java.time.LocalDateTime;
+
+public record CatalogVersion(
+        Long productCount,
+        LocalDateTime lastUpdatedAt
+) {
+}
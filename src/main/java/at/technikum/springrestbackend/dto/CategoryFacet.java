@@ -0,0 +1,10 @@
+package at.technikum.springrestbackend.dto;
+
+public record CategoryFacet(
+        String category,
+        Long productCount,
+        Long inStockCount,
+        Double minPrice,
+        Double maxPrice
+) {
+}
@@ -0,0 +1,10 @@
+package at.technikum.springrestbackend.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        int size
+) {
+}
@@ -0,0 +1,14 @@
+package at.technikum.springrestbackend.dto;
+
+import java.util.List;
+
+public record ImportResult(
+        long imported,
+        long failed,
+        long durationMillis,
+        double rowsPerSecond,
+        List<ImportError> errors
+) {
+    public record ImportError(long line, String message) {
+    }
+}
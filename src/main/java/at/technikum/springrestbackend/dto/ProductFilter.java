@@ -0,0 +1,16 @@
+package at.technikum.springrestbackend.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Optional product filters bound from query parameters; null means "no restriction"
+public record ProductFilter(
+        String category,
+        Double minPrice,
+        Double maxPrice,
+        Boolean inStock,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo
+) {
+}
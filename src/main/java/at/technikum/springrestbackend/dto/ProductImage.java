@@ -0,0 +1,7 @@
+package at.technikum.springrestbackend.dto;
+
+import java.util.UUID;
+
+// Stored image path of a product ("/bucket/key"), without loading the whole entity
+public record ProductImage(UUID id, String imageUrl) {
+}
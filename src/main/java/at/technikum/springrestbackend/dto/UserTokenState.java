@@ -0,0 +1,10 @@
+package at.technikum.springrestbackend.dto;
+
+import java.util.UUID;
+
+public record UserTokenState(
+        UUID userId,
+        Integer tokenVersion,
+        Boolean active
+) {
+}
@@ -0,0 +1,58 @@
+package at.technikum.springrestbackend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Downscaled, re-encoded copy of an uploaded image, stored next to the original in MinIO
+@Entity
+@Table(indexes = {
+        @Index(name = "uk_image_variant_original_width", columnList = "originalKey, width",
+                unique = true)
+})
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // Object key of the uploaded original (without the bucket)
+    @Column(nullable = false, length = 512)
+    private String originalKey;
+
+    @Column(nullable = false, length = 600)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private int width;
+
+    @Column(nullable = false)
+    private long size;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public ImageVariant() {}
+
+    public ImageVariant(String originalKey, String objectKey, int width, long size) {
+        this.originalKey = originalKey;
+        this.objectKey = objectKey;
+        this.width = width;
+        this.size = size;
+    }
+
+    public UUID getId() { return id; }
+
+    public String getOriginalKey() { return originalKey; }
+
+    public String getObjectKey() { return objectKey; }
+
+    public int getWidth() { return width; }
+
+    public long getSize() { return size; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
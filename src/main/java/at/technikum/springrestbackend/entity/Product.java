@@ -12,6 +12,18 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // Composite (sort key, id) indexes backing the keyset pagination seek queries
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_created_at_id", columnList = "createdAt, id"),
+        // Category filter combined with a price/createdAt range or a sort on the same column
+        @Index(name = "idx_product_category_name_id", columnList = "category, name, id"),
+        @Index(name = "idx_product_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_product_category_created_at_id", columnList = "category, createdAt, id"),
+        // Makes MAX(updatedAt) for the catalog ETag a single index lookup
+        @Index(name = "idx_product_updated_at", columnList = "updatedAt")
+})
 public class Product {
 
     @Id
@@ -0,0 +1,58 @@
+package at.technikum.springrestbackend.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Refresh token stored as a SHA-256 digest only; the raw value is known to the client alone
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_token_expires_at", columnList = "expiresAt")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    // User's token version when the token was issued, checked against revocations on refresh
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public RefreshToken() {}
+
+    public RefreshToken(String tokenHash, User user, int tokenVersion, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.user = user;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getId() { return id; }
+
+    public String getTokenHash() { return tokenHash; }
+
+    public User getUser() { return user; }
+
+    public int getTokenVersion() { return tokenVersion; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,13 +1,22 @@
 package at.technikum.springrestbackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // Login resolves either identifier with one lookup on these; they also enforce uniqueness
+        @Index(name = "uk_user_email_normalized", columnList = "emailNormalized", unique = true),
+        @Index(name = "uk_user_username_normalized", columnList = "usernameNormalized", unique = true)
+})
 public class User {
 
     @Id
@@ -34,6 +43,13 @@ public class User {
     @Size(min = 8, message = "Password must be at least 8 characters long")
     private String password;
 
+    // Lower-cased copies of email and username, kept in sync on every save
+    @JsonIgnore
+    private String emailNormalized;
+
+    @JsonIgnore
+    private String usernameNormalized;
+
     @Enumerated(EnumType.STRING)
     private Role role;
 
@@ -45,6 +61,12 @@ public class User {
 
     private Boolean isActive;
 
+    // Incremented whenever the user's existing tokens must stop working
+    private Integer tokenVersion;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     // Default constructor
     public User() {}
 
@@ -129,4 +151,22 @@ public class User {
     public boolean getIsActive() { return isActive; }
 
     public void setIsActive(boolean isActive) { this.isActive = isActive; }
+
+    public int getTokenVersion() { return tokenVersion == null ? 0 : tokenVersion; }
+
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeIdentifiers() {
+        this.emailNormalized = normalizeIdentifier(email);
+        this.usernameNormalized = normalizeIdentifier(username);
+    }
+
+    // Canonical form of an email or username as stored in the normalized columns
+    public static String normalizeIdentifier(String identifier) {
+        return identifier == null ? null : identifier.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,7 @@
+package at.technikum.springrestbackend.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package at.technikum.springrestbackend.exception;
+
+// Thrown when a bounded resource is saturated; the client should retry after the given delay
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package at.technikum.springrestbackend.exception;
+
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -3,10 +3,23 @@ package at.technikum.springrestbackend.property;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties("security.jwt")
 public class JwtProperties {
     private String secret;
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+    private Verifier verifier = Verifier.HS256;
+
+    // How incoming tokens are verified
+    public enum Verifier {
+        // Full jjwt parser
+        JJWT,
+        // Specialised verifier for the HS256 tokens this application issues
+        HS256
+    }
 
     public String getSecret() {
         return secret;
@@ -15,4 +28,28 @@ public class JwtProperties {
     public void setSecret(String secret) {
         this.secret = secret;
     }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    public void setAccessTokenTtl(Duration accessTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public Duration getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    public void setRefreshTokenTtl(Duration refreshTokenTtl) {
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public Verifier getVerifier() {
+        return verifier;
+    }
+
+    public void setVerifier(Verifier verifier) {
+        this.verifier = verifier;
+    }
 }
@@ -0,0 +1,13 @@
+package at.technikum.springrestbackend.repository;
+
+import at.technikum.springrestbackend.entity.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, UUID> {
+
+    List<ImageVariant> findByOriginalKeyIn(Collection<String> originalKeys);
+}
@@ -1,17 +1,78 @@
 package at.technikum.springrestbackend.repository;
 
+import at.technikum.springrestbackend.dto.CatalogVersion;
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.dto.ProductImage;
 import at.technikum.springrestbackend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>,
+        JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     Page<Product> findAll(Pageable pageable);
+
+    // Aggregate version of the whole catalog: any insert, update or delete changes it
+    @Query("SELECT new at.technikum.springrestbackend.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) "
+            + "FROM Product p")
+    CatalogVersion findCatalogVersion();
+
+    @Query("SELECT new at.technikum.springrestbackend.dto.CategoryFacet(p.category, COUNT(p), "
+            + "SUM(CASE WHEN p.stockQuantity > 0 THEN 1 ELSE 0 END), MIN(p.price), MAX(p.price)) "
+            + "FROM Product p GROUP BY p.category")
+    List<CategoryFacet> findCategoryFacets();
+
+    // Image paths of many products with one IN query (for batch image URL resolution)
+    @Query("SELECT new at.technikum.springrestbackend.dto.ProductImage(p.id, p.imageUrl) "
+            + "FROM Product p WHERE p.id IN :ids")
+    List<ProductImage> findImagesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category = :category")
+    List<UUID> findIdsByCategory(@Param("category") String category);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category = :category AND p.stockQuantity = 0")
+    List<UUID> findOutOfStockIdsByCategory(@Param("category") String category);
+
+    // Bulk statements bypass @UpdateTimestamp, so updatedAt is set explicitly (keeps ETags valid)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.price = p.price * :factor, p.updatedAt = :now "
+            + "WHERE p.category = :category")
+    int scalePriceByCategory(@Param("category") String category, @Param("factor") double factor,
+                             @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = :stock, p.updatedAt = :now WHERE p.id IN :ids")
+    int updateStockByIds(@Param("ids") Collection<UUID> ids, @Param("stock") int stock,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Product p WHERE p.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Product p WHERE p.category = :category")
+    int deleteByCategory(@Param("category") String category);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Product p WHERE p.category = :category AND p.stockQuantity = 0")
+    int deleteOutOfStockByCategory(@Param("category") String category);
 }
 
 
@@ -0,0 +1,27 @@
+package at.technikum.springrestbackend.repository;
+
+import at.technikum.springrestbackend.entity.Product;
+import at.technikum.springrestbackend.util.ProductCursor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+
+    // Seek query: rows strictly after the cursor position, ordered by (sort key, id)
+    List<Product> findPageAfter(ProductCursor cursor, int limit);
+
+    // Projection query: selects only the given attributes, one map per row in field order
+    List<Map<String, Object>> findFields(List<String> fields, Pageable pageable);
+
+    // Forward-only, read-only cursor over all products; rows are detached as they are read.
+    // Must be consumed inside a transaction and closed afterwards.
+    Stream<Product> streamAll(int fetchSize);
+
+    // Persist new products in one transaction as JDBC batches, then clear the persistence context
+    @Transactional
+    void insertAll(List<Product> products);
+}
@@ -0,0 +1,123 @@
+package at.technikum.springrestbackend.repository;
+
+import at.technikum.springrestbackend.entity.Product;
+import at.technikum.springrestbackend.util.ProductCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPageAfter(ProductCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+
+        if (!cursor.isFirst()) {
+            query.where(seekPredicate(cb, product, cursor));
+        }
+        query.orderBy(orderBy(cb, product, cursor));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> product.get(field).alias(field))
+                .toList());
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList().stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Stream<Product> streamAll(int fetchSize) {
+        return entityManager.createQuery("SELECT p FROM Product p ORDER BY p.id", Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(this::detach);
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        products.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Keep the persistence context empty so memory stays flat while streaming
+    private Product detach(Product product) {
+        entityManager.detach(product);
+        return product;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, List<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        fields.forEach(field -> row.put(field, tuple.get(field)));
+        return row;
+    }
+
+    // (key > :key) OR (key = :key AND id > :id), flipped for descending order
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Product> product, ProductCursor cursor) {
+        boolean descending = cursor.direction().isDescending();
+        Expression id = product.get("id");
+        Predicate afterId = descending
+                ? cb.lessThan(id, cursor.id())
+                : cb.greaterThan(id, cursor.id());
+        if ("id".equals(cursor.property())) {
+            return afterId;
+        }
+
+        Expression key = product.get(cursor.property());
+        Comparable value = cursor.typedKey();
+        Predicate afterKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+        return cb.or(afterKey, cb.and(cb.equal(key, value), afterId));
+    }
+
+    private List<Order> orderBy(CriteriaBuilder cb, Root<Product> product, ProductCursor cursor) {
+        boolean descending = cursor.direction().isDescending();
+        List<Order> orders = new ArrayList<>();
+        if (!"id".equals(cursor.property())) {
+            Expression<?> key = product.get(cursor.property());
+            orders.add(descending ? cb.desc(key) : cb.asc(key));
+        }
+        orders.add(descending ? cb.desc(product.get("id")) : cb.asc(product.get("id")));
+        return orders;
+    }
+}
@@ -0,0 +1,54 @@
+package at.technikum.springrestbackend.repository;
+
+import at.technikum.springrestbackend.dto.ProductFilter;
+import at.technikum.springrestbackend.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Translates a {@link ProductFilter} into bound Criteria predicates. Equality on category comes
+ * first and the range conditions follow, matching the (category, sort key, id) indexes.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        return Specification.allOf(
+                inCategory(filter.category()),
+                priceBetween(filter.minPrice(), filter.maxPrice()),
+                Boolean.TRUE.equals(filter.inStock()) ? inStock() : null,
+                createdBetween(filter.createdFrom(), filter.createdTo()));
+    }
+
+    private static Specification<Product> inCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return (product, query, cb) -> cb.equal(product.get("category"), category);
+    }
+
+    // Inclusive on both ends
+    private static Specification<Product> priceBetween(Double min, Double max) {
+        Specification<Product> from = min == null ? null
+                : (product, query, cb) -> cb.greaterThanOrEqualTo(product.get("price"), min);
+        Specification<Product> to = max == null ? null
+                : (product, query, cb) -> cb.lessThanOrEqualTo(product.get("price"), max);
+        return Specification.allOf(from, to);
+    }
+
+    private static Specification<Product> inStock() {
+        return (product, query, cb) -> cb.greaterThan(product.get("stockQuantity"), 0);
+    }
+
+    // Inclusive start, exclusive end
+    private static Specification<Product> createdBetween(LocalDateTime from, LocalDateTime to) {
+        Specification<Product> after = from == null ? null
+                : (product, query, cb) -> cb.greaterThanOrEqualTo(product.get("createdAt"), from);
+        Specification<Product> before = to == null ? null
+                : (product, query, cb) -> cb.lessThan(product.get("createdAt"), to);
+        return Specification.allOf(after, before);
+    }
+}
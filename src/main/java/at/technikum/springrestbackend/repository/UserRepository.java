@@ -1,13 +1,52 @@
 package at.technikum.springrestbackend.repository;
 
+import at.technikum.springrestbackend.dto.UserTokenState;
 import at.technikum.springrestbackend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    // One indexed lookup for login by email or username; an email match takes precedence
+    default Optional<User> findByEmailOrUsername(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return Optional.empty();
+        }
+        return findAllByNormalizedIdentifier(User.normalizeIdentifier(identifier)).stream()
+                .findFirst();
+    }
+
+    @Query("SELECT u FROM User u "
+            + "WHERE u.emailNormalized = :identifier OR u.usernameNormalized = :identifier "
+            + "ORDER BY CASE WHEN u.emailNormalized = :identifier THEN 0 ELSE 1 END")
+    List<User> findAllByNormalizedIdentifier(@Param("identifier") String identifier);
+
+    // Fills the normalized columns of rows saved before they existed
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.emailNormalized = LOWER(TRIM(u.email)), "
+            + "u.usernameNormalized = LOWER(TRIM(u.username)) "
+            + "WHERE u.emailNormalized IS NULL OR u.usernameNormalized IS NULL")
+    int normalizeLegacyIdentifiers();
+
+    // Token version and active flag of one user, without loading the entity; empty if deleted
+    @Query("SELECT new at.technikum.springrestbackend.dto.UserTokenState("
+            + "u.id, u.tokenVersion, u.isActive) FROM User u WHERE u.id = :id")
+    Optional<UserTokenState> findTokenStateById(@Param("id") UUID id);
+
+    // Replace only the password hash, without loading the user
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
 }
 
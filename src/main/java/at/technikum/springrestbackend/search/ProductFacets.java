@@ -0,0 +1,178 @@
+package at.technikum.springrestbackend.search;
+
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Per-category product aggregates (count, in-stock count, price range) maintained
+ * incrementally on every write, so reading them is O(number of categories).
+ * A rebuild fills a fresh set of counters and swaps it in at once, so readers never see
+ * empty or partial counts; writes made meanwhile are replayed onto the new counters first.
+ */
+@Component
+public class ProductFacets {
+
+    // What a product currently contributes to the aggregates
+    private record Contribution(String category, double price, boolean inStock) {
+    }
+
+    private static final class CategoryCounters {
+        private final LongAdder products = new LongAdder();
+        private final LongAdder inStock = new LongAdder();
+        // price -> number of products with that price, gives min/max after deletes
+        private final ConcurrentSkipListMap<Double, Long> prices = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class Counters {
+        private final Map<UUID, Contribution> contributions = new ConcurrentHashMap<>();
+        private final Map<String, CategoryCounters> categories = new ConcurrentHashMap<>();
+    }
+
+    private volatile Counters current = new Counters();
+    // Writes made while a rebuild runs, replayed onto the rebuilt counters before the swap
+    private volatile Queue<Consumer<Counters>> pendingWrites;
+    // Writes share the read lock; only the replay and swap take the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Add a product or replace its previous contribution
+    public void put(Product product) {
+        Contribution contribution = contribution(product);
+        write(counters -> put(counters, product.getId(), contribution));
+    }
+
+    public void remove(UUID productId) {
+        write(counters -> counters.contributions.computeIfPresent(productId, (id, previous) -> {
+            subtract(counters, previous);
+            return null;
+        }));
+    }
+
+    // Apply a bulk price change without reloading the product
+    public void scalePrice(UUID productId, double factor) {
+        write(counters -> counters.contributions.computeIfPresent(productId, (id, previous) ->
+                replace(counters, previous, new Contribution(
+                        previous.category(), previous.price() * factor, previous.inStock()))));
+    }
+
+    // Apply a bulk stock change without reloading the product
+    public void setStock(UUID productId, int stockQuantity) {
+        write(counters -> counters.contributions.computeIfPresent(productId, (id, previous) ->
+                replace(counters, previous, new Contribution(
+                        previous.category(), previous.price(), stockQuantity > 0))));
+    }
+
+    public void clear() {
+        current = new Counters();
+    }
+
+    // Recomputes all counters from the given products while the old ones keep serving
+    public void rebuild(Stream<Product> products) {
+        Queue<Consumer<Counters>> writes = new ConcurrentLinkedQueue<>();
+        pendingWrites = writes;
+        try {
+            Counters rebuilt = new Counters();
+            products.forEach(product ->
+                    put(rebuilt, product.getId(), contribution(product)));
+            swapLock.writeLock().lock();
+            try {
+                writes.forEach(write -> write.accept(rebuilt));
+                current = rebuilt;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            pendingWrites = null;
+        }
+    }
+
+    public List<CategoryFacet> snapshot() {
+        List<CategoryFacet> facets = new ArrayList<>();
+        current.categories.forEach((category, counters) -> {
+            long count = counters.products.sum();
+            Map.Entry<Double, Long> min = counters.prices.firstEntry();
+            Map.Entry<Double, Long> max = counters.prices.lastEntry();
+            if (count > 0 && min != null && max != null) {
+                facets.add(new CategoryFacet(
+                        category, count, counters.inStock.sum(), min.getKey(), max.getKey()));
+            }
+        });
+        facets.sort(Comparator.comparing(CategoryFacet::category));
+        return facets;
+    }
+
+    private void write(Consumer<Counters> write) {
+        swapLock.readLock().lock();
+        try {
+            write.accept(current);
+            Queue<Consumer<Counters>> writes = pendingWrites;
+            if (writes != null) {
+                writes.add(write);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static Contribution contribution(Product product) {
+        return new Contribution(
+                product.getCategory() == null ? "" : product.getCategory(),
+                product.getPrice(),
+                product.getStockQuantity() > 0);
+    }
+
+    private static void put(Counters counters, UUID productId, Contribution contribution) {
+        counters.contributions.compute(productId, (id, previous) -> {
+            if (previous != null) {
+                subtract(counters, previous);
+            }
+            add(counters, contribution);
+            return contribution;
+        });
+    }
+
+    private static Contribution replace(Counters counters, Contribution previous,
+                                        Contribution next) {
+        subtract(counters, previous);
+        add(counters, next);
+        return next;
+    }
+
+    private static void add(Counters counters, Contribution contribution) {
+        CategoryCounters category = counters.categories.computeIfAbsent(
+                contribution.category(), name -> new CategoryCounters());
+        category.products.increment();
+        if (contribution.inStock()) {
+            category.inStock.increment();
+        }
+        category.prices.merge(contribution.price(), 1L, Long::sum);
+    }
+
+    private static void subtract(Counters counters, Contribution contribution) {
+        CategoryCounters category = counters.categories.get(contribution.category());
+        if (category == null) {
+            return;
+        }
+        category.products.decrement();
+        if (contribution.inStock()) {
+            category.inStock.decrement();
+        }
+        category.prices.computeIfPresent(
+                contribution.price(), (price, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,114 @@
+package at.technikum.springrestbackend.search;
+
+import at.technikum.springrestbackend.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, description and category.
+ * Writes are serialized, searches run lock-free against the concurrent posting maps.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // term -> (product id -> weighted term frequency)
+    private final Map<String, Map<UUID, Integer>> postings = new ConcurrentHashMap<>();
+    // product id -> indexed terms, needed to remove a product again
+    private final Map<UUID, Set<String>> termsByProduct = new ConcurrentHashMap<>();
+
+    // Add or replace a product in the index
+    public synchronized void index(Product product) {
+        remove(product.getId());
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, product.getName(), NAME_WEIGHT);
+        addTerms(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addTerms(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings
+                .computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                .put(product.getId(), weight));
+        termsByProduct.put(product.getId(), Set.copyOf(weights.keySet()));
+    }
+
+    public synchronized void remove(UUID productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<UUID, Integer> products = postings.get(term);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        termsByProduct.clear();
+    }
+
+    // IDs of all products matching any query term, best match first (weighted tf-idf)
+    public List<UUID> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int documentCount = Math.max(termsByProduct.size(), 1);
+        Map<UUID, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<UUID, Integer> products = postings.getOrDefault(term, Collections.emptyMap());
+            double idf = Math.log(1.0 + (double) documentCount / Math.max(products.size(), 1));
+            products.forEach((id, weight) -> scores.merge(id, weight * idf, Double::sum));
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.<UUID, Double>comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public int size() {
+        return termsByProduct.size();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private void addTerms(Map<String, Integer> weights, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                weights.merge(token, weight, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package at.technikum.springrestbackend.security.cors;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Answers CORS preflight requests before the security filter chain and the handler lookup run.
+ * Everything except the echoed origin and request headers is computed once from the
+ * {@link CorsConfiguration}, and the long max-age lets browsers reuse the preflight result.
+ */
+public class CorsPreflightFilter extends OncePerRequestFilter {
+
+    private static final String VARY = String.join(", ", HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+    private final Set<String> allowedOrigins;
+    private final Set<String> allowedMethods;
+    private final String allowMethods;
+    private final String allowHeaders;
+    private final String allowCredentials;
+    private final String maxAge;
+
+    public CorsPreflightFilter(CorsConfiguration configuration) {
+        this.allowedOrigins = Set.copyOf(listOrEmpty(configuration.getAllowedOrigins()));
+        this.allowedMethods = Set.copyOf(listOrEmpty(configuration.getAllowedMethods()));
+        this.allowMethods = String.join(", ", allowedMethods);
+        List<String> headers = listOrEmpty(configuration.getAllowedHeaders());
+        // null means the requested headers are echoed back
+        this.allowHeaders =
+                headers.contains(CorsConfiguration.ALL) ? null : String.join(", ", headers);
+        this.allowCredentials =
+                Boolean.TRUE.equals(configuration.getAllowCredentials()) ? "true" : null;
+        Long maxAgeSeconds = configuration.getMaxAge();
+        this.maxAge = maxAgeSeconds == null ? null : maxAgeSeconds.toString();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) {
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        String method = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+        response.setHeader(HttpHeaders.VARY, VARY);
+        if (!allowedOrigins.contains(origin) || !allowedMethods.contains(method)) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, allowMethods);
+        String requestHeaders = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+        String headers = allowHeaders != null ? allowHeaders : requestHeaders;
+        if (headers != null && !headers.isEmpty()) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, headers);
+        }
+        if (allowCredentials != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, allowCredentials);
+        }
+        if (maxAge != null) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAge);
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    private static List<String> listOrEmpty(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+}
@@ -0,0 +1,17 @@
+package at.technikum.springrestbackend.security.jwt;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.UUID;
+
+/**
+ * Principal built only from verified token claims. getName() returns the email, the same value
+ * the UserDetails principal used to expose.
+ */
+public record AuthenticatedUser(UUID id, String email, String role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -21,9 +21,8 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(identifier)
-                .orElseGet(() -> userRepository.findByUsername(identifier)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email or username: " + identifier)));
+        User user = userRepository.findByEmailOrUsername(identifier)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email or username: " + identifier));
 
         // Convert Role enum to a String with "ROLE_" prefix
         String roleName = "ROLE_" + user.getRole().name();
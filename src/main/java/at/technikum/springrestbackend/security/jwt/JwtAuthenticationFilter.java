@@ -1,31 +1,57 @@
 package at.technikum.springrestbackend.security.jwt;
 
+import at.technikum.springrestbackend.config.SecurityConfig;
 import at.technikum.springrestbackend.util.JwtUtil;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Public routes and OPTIONS requests never need the token
+    private static final RequestMatcher SKIPPED = skippedRequests();
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocations tokenRevocations;
+
+    // Build the principal from the token claims alone instead of loading the user per request
+    @Value("${security.jwt.stateless:true}")
+    private boolean stateless = true;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   VerifiedTokenCache verifiedTokenCache,
+                                   TokenRevocations tokenRevocations) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocations = tokenRevocations;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SKIPPED.matches(request);
     }
 
     @Override
@@ -42,21 +68,49 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             String token = authorizationHeader.substring(7);
 
-            if (jwtUtil.validateToken(token)) {
-                Claims claims = jwtUtil.getClaims(token);
-                String username = claims.getSubject();
-                String role = claims.get("role", String.class);
-                SimpleGrantedAuthority authority = new SimpleGrantedAuthority(role);
+            // Verified once, then served from the cache until the token expires
+            Claims claims = verifiedTokenCache.get(token, jwtUtil::verify);
+            if (claims != null) {
+                UsernamePasswordAuthenticationToken authToken = authenticate(claims);
+                if (authToken != null) {
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, Collections.singleton(authority));
+    // Null when the token was revoked; tokens without a user id fall back to a user lookup
+    private UsernamePasswordAuthenticationToken authenticate(Claims claims) {
+        String role = claims.get("role", String.class);
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority(role);
+        String userId = claims.get(JwtUtil.USER_ID_CLAIM, String.class);
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (userId != null) {
+            UUID id = UUID.fromString(userId);
+            Integer version = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+            if (tokenRevocations.isRevoked(id, version == null ? 0 : version)) {
+                return null;
+            }
+            if (stateless) {
+                AuthenticatedUser principal = new AuthenticatedUser(id, claims.getSubject(), role);
+                return new UsernamePasswordAuthenticationToken(
+                        principal, null, Collections.singleton(authority));
             }
         }
 
-        filterChain.doFilter(request, response);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        return new UsernamePasswordAuthenticationToken(
+                userDetails, null, Collections.singleton(authority));
     }
 
+    private static RequestMatcher skippedRequests() {
+        List<RequestMatcher> matchers = new ArrayList<>();
+        matchers.add(new AntPathRequestMatcher("/**", "OPTIONS"));
+        for (String path : SecurityConfig.PUBLIC_PATHS) {
+            matchers.add(new AntPathRequestMatcher(path));
+        }
+        return new OrRequestMatcher(matchers);
+    }
 }
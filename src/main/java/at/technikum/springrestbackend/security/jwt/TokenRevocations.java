@@ -0,0 +1,62 @@
+package at.technikum.springrestbackend.security.jwt;
+
+import at.technikum.springrestbackend.dto.UserTokenState;
+import at.technikum.springrestbackend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Revocation state for stateless tokens. A token is rejected when its "ver" claim is below the
+ * user's current token version, or when the user is deactivated or no longer exists. The state
+ * comes from the user table and is cached per user for at most ttl, so the database is asked
+ * once per active user and ttl rather than per request, and every instance (also after a
+ * restart) sees revocations within ttl. Changes made through this instance apply right away.
+ */
+@Component
+public class TokenRevocations {
+
+    private final UserRepository userRepository;
+    private final LoadingCache<UUID, UserTokenState> states;
+
+    public TokenRevocations(UserRepository userRepository,
+                            @Value("${security.jwt.revocation-cache.ttl:1m}") Duration ttl,
+                            @Value("${security.jwt.revocation-cache.maximum-size:10000}")
+                            long maximumSize) {
+        this.userRepository = userRepository;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build(this::loadState);
+    }
+
+    public boolean isRevoked(UUID userId, int tokenVersion) {
+        UserTokenState state = states.get(userId);
+        return Boolean.FALSE.equals(state.active()) || tokenVersion < version(state);
+    }
+
+    // Tokens issued before the given version stop working
+    public void revokeBefore(UUID userId, int tokenVersion) {
+        states.asMap().computeIfPresent(userId, (id, state) -> new UserTokenState(
+                id, Math.max(tokenVersion, version(state)), state.active()));
+    }
+
+    public void setLocked(UUID userId, boolean locked) {
+        states.asMap().computeIfPresent(userId, (id, state) ->
+                new UserTokenState(id, state.tokenVersion(), !locked));
+    }
+
+    // A deleted user has no row and is treated like a deactivated one
+    private UserTokenState loadState(UUID userId) {
+        return userRepository.findTokenStateById(userId)
+                .orElseGet(() -> new UserTokenState(userId, null, false));
+    }
+
+    private static int version(UserTokenState state) {
+        return state.tokenVersion() == null ? 0 : state.tokenVersion();
+    }
+}
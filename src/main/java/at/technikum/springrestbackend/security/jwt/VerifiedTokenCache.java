@@ -0,0 +1,90 @@
+package at.technikum.springrestbackend.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already verified bearer tokens, keyed by the SHA-256 digest of the token so
+ * raw tokens are never kept in memory. Each entry lives until the token's own expiry (capped at
+ * max-ttl); a repeated token then costs one digest instead of an HMAC check plus JSON parsing.
+ * Invalid tokens are not cached. Metrics are published as "cache.*" tagged cache=jwt.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    private final Cache<ByteBuffer, Claims> cache;
+
+    public VerifiedTokenCache(
+            @Value("${security.jwt.verified-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.jwt.verified-cache.max-ttl:1h}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(untilTokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+    }
+
+    // Cached claims for the token, or the verifier's result (null when the token is invalid)
+    public Claims get(String token, Function<String, Claims> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+    }
+
+    private static Expiry<ByteBuffer, Claims> untilTokenExpiry(Duration maxTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                Date expiration = claims.getExpiration();
+                if (expiration == null) {
+                    return maxTtl.toNanos();
+                }
+                long remainingMillis = Math.max(expiration.getTime() - System.currentTimeMillis(), 0);
+                return Math.min(Duration.ofMillis(remainingMillis).toNanos(), maxTtl.toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime,
+                                          long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime,
+                                        long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package at.technikum.springrestbackend.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throttles {@code POST /auth/login} and {@code POST /auth/register} before any user lookup or
+ * password hashing happens. Every attempt takes a token from the client address bucket and from
+ * the bucket of the account being tried (login identifier or registration email), so neither a
+ * single client nor a distributed attack on one account can exhaust the hashing pool.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Map<String, String> IDENTITY_FIELDS = Map.of(
+            "/auth/login", "usernameOrEmail",
+            "/auth/register", "email");
+
+    private final StripedRateLimiter clientLimiter;
+    private final StripedRateLimiter identityLimiter;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+    private final long retryAfterSeconds;
+    private final Counter allowed;
+    private final Counter rejectedByClient;
+    private final Counter rejectedByIdentity;
+
+    public AuthRateLimitFilter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${security.rate-limit.stripes:64}") int stripes,
+            @Value("${security.rate-limit.slots-per-stripe:512}") int slotsPerStripe,
+            @Value("${security.rate-limit.client.capacity:20}") int clientCapacity,
+            @Value("${security.rate-limit.client.refill-per-minute:30}") double clientRefill,
+            @Value("${security.rate-limit.identity.capacity:5}") int identityCapacity,
+            @Value("${security.rate-limit.identity.refill-per-minute:5}") double identityRefill,
+            @Value("${security.rate-limit.max-body-bytes:16384}") int maxBodyBytes,
+            @Value("${security.rate-limit.retry-after-seconds:10}") long retryAfterSeconds) {
+        this.clientLimiter =
+                new StripedRateLimiter(stripes, slotsPerStripe, clientCapacity, clientRefill);
+        this.identityLimiter =
+                new StripedRateLimiter(stripes, slotsPerStripe, identityCapacity, identityRefill);
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.allowed = meterRegistry.counter("auth.ratelimit.allowed");
+        this.rejectedByClient = meterRegistry.counter("auth.ratelimit.rejected", "key", "client");
+        this.rejectedByIdentity =
+                meterRegistry.counter("auth.ratelimit.rejected", "key", "identity");
+        Gauge.builder("auth.ratelimit.evictions", clientLimiter, StripedRateLimiter::evictions)
+                .tag("key", "client").register(meterRegistry);
+        Gauge.builder("auth.ratelimit.evictions", identityLimiter, StripedRateLimiter::evictions)
+                .tag("key", "identity").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || identityField(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!clientLimiter.tryAcquire(request.getRemoteAddr())) {
+            rejectedByClient.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, try again later");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+
+        String identity = identity(body, identityField(request));
+        if (identity != null && !identityLimiter.tryAcquire(identity)) {
+            rejectedByIdentity.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, try again later");
+            return;
+        }
+
+        allowed.increment();
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String identityField(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return IDENTITY_FIELDS.get(path);
+    }
+
+    // Lower-cased account identifier from the JSON body; null when missing or unparsable
+    private String identity(byte[] body, String field) {
+        try {
+            JsonNode value = objectMapper.readTree(body).get(field);
+            return value != null && value.isTextual()
+                    ? value.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    // Replays the already consumed body to the controller
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The whole body is already in memory, so it is available and complete at once
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(
+                    new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
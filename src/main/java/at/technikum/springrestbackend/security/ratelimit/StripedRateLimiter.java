@@ -0,0 +1,115 @@
+package at.technikum.springrestbackend.security.ratelimit;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets in a fixed-size, lock-striped table. A key hashes to one stripe (guarded by its
+ * own lock) and to two candidate slots inside it. A key already in one of them keeps its bucket;
+ * otherwise the slot that was used least recently is taken over, so memory never grows and
+ * eviction is approximately LRU. A colliding key may reuse a bucket, which only makes the
+ * limit slightly stricter for the two keys involved.
+ */
+public class StripedRateLimiter {
+
+    private final Stripe[] stripes;
+    private final int slotsPerStripe;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongAdder evictions = new LongAdder();
+
+    public StripedRateLimiter(int stripeCount, int slotsPerStripe, int capacity,
+                              double refillPerMinute) {
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(stripeCount, 1))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+        this.slotsPerStripe = slotsPerStripe;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+    }
+
+    // Take one token from the key's bucket; false when the bucket is empty
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        long hash = mix(key.hashCode());
+        Stripe stripe = stripes[(int) hash & (stripes.length - 1)];
+        int first = (int) Long.remainderUnsigned(hash >>> 16, slotsPerStripe);
+        int second = (int) Long.remainderUnsigned(hash >>> 40, slotsPerStripe);
+        synchronized (stripe) {
+            int slot = stripe.find(hash, first, second);
+            if (slot < 0) {
+                slot = stripe.older(first, second);
+                if (stripe.used[slot]) {
+                    evictions.increment();
+                }
+                stripe.reset(slot, hash, capacity, now);
+            }
+            return stripe.take(slot, now, capacity, tokensPerNano);
+        }
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // Spread String.hashCode() over 64 bits (SplitMix64 finalizer)
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stripe {
+        final long[] keys;
+        final double[] tokens;
+        final long[] lastSeen;
+        final boolean[] used;
+
+        Stripe(int slots) {
+            keys = new long[slots];
+            tokens = new double[slots];
+            lastSeen = new long[slots];
+            used = new boolean[slots];
+        }
+
+        int find(long hash, int first, int second) {
+            if (used[first] && keys[first] == hash) {
+                return first;
+            }
+            return used[second] && keys[second] == hash ? second : -1;
+        }
+
+        // Free slot if there is one, otherwise the one touched longest ago
+        int older(int first, int second) {
+            if (!used[first]) {
+                return first;
+            }
+            if (!used[second]) {
+                return second;
+            }
+            return lastSeen[first] - lastSeen[second] <= 0 ? first : second;
+        }
+
+        void reset(int slot, long hash, double capacity, long now) {
+            used[slot] = true;
+            keys[slot] = hash;
+            tokens[slot] = capacity;
+            lastSeen[slot] = now;
+        }
+
+        boolean take(int slot, long now, double capacity, double tokensPerNano) {
+            double refilled = tokens[slot] + (now - lastSeen[slot]) * tokensPerNano;
+            lastSeen[slot] = now;
+            if (refilled < 1) {
+                tokens[slot] = refilled;
+                return false;
+            }
+            tokens[slot] = Math.min(refilled, capacity) - 1;
+            return true;
+        }
+    }
+}
@@ -1,28 +1,99 @@
 package at.technikum.springrestbackend.service;
 
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.BucketExistsArgs;
 import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
-import io.minio.messages.Bucket;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * Stores uploaded images in MinIO and hands out presigned GET URLs. Presigned URLs are cached
+ * per object key and re-signed in the background once they reach refresh-after, so clients
+ * keep getting the same URL (and can use their browser cache) while it is never older than
+ * max-age, i.e. always valid for at least expiry minus max-age.
+ * Cache metrics are published as "cache.*" tagged cache=presigned-urls.
+ * Raw request bodies are streamed through {@link MultipartUploader} instead of being buffered.
+ * Every stored image is handed to {@link ImageVariantService} for downscaled variants.
+ */
 @Service
-public class FileService {
+public class FileService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(FileService.class);
+    private static final Set<String> BUCKET_CREATED_CODES =
+            Set.of("BucketAlreadyOwnedByYou", "BucketAlreadyExists");
+    // Longest validity S3 accepts for a presigned URL
+    private static final Duration MAX_PRESIGNED_URL_EXPIRY = Duration.ofDays(7);
 
     private final MinioClient minioClient;
+    private final MultipartUploader multipartUploader;
+    private final ImageVariantService imageVariantService;
+    private final Duration presignedUrlExpiry;
+    private final LoadingCache<String, String> presignedUrls;
 
     @Value("${minio.bucket}")
     private String bucketName;
 
-    public FileService(MinioClient minioClient) {
+    // Set once the bucket is known to exist; cleared again only when a put reports NoSuchBucket
+    private volatile boolean bucketReady;
+
+    public FileService(MinioClient minioClient, MultipartUploader multipartUploader,
+                       ImageVariantService imageVariantService,
+                       @Value("${minio.presigned-url.expiry:1h}") Duration expiry,
+                       @Value("${minio.presigned-url.refresh-after:40m}") Duration refreshAfter,
+                       @Value("${minio.presigned-url.max-age:50m}") Duration maxAge,
+                       @Value("${minio.presigned-url.maximum-size:10000}") long maximumSize) {
+        if (refreshAfter.compareTo(maxAge) >= 0 || maxAge.compareTo(expiry) >= 0) {
+            throw new IllegalArgumentException(
+                    "Presigned URLs need refresh-after < max-age < expiry");
+        }
+        if (expiry.compareTo(MAX_PRESIGNED_URL_EXPIRY) > 0) {
+            throw new IllegalArgumentException(
+                    "minio.presigned-url.expiry must not exceed " + MAX_PRESIGNED_URL_EXPIRY);
+        }
         this.minioClient = minioClient;
+        this.multipartUploader = multipartUploader;
+        this.imageVariantService = imageVariantService;
+        this.presignedUrlExpiry = expiry;
+        this.presignedUrls = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build(this::presign);
+    }
+
+    // Check or create the bucket at startup; if MinIO is not reachable yet the first upload retries
+    @PostConstruct
+    void initBucket() {
+        try {
+            ensureBucketExists();
+        } catch (Exception e) {
+            // Startup still succeeds, but the cause is logged with its stack trace
+            log.warn("MinIO bucket check for '{}' failed, retrying on the first upload",
+                    bucketName, e);
+        }
     }
 
     public String uploadFile(MultipartFile file) {
@@ -32,21 +103,17 @@ public class FileService {
                 throw new IllegalArgumentException("Only image files are allowed");
             }
 
-            // Ensure the bucket exists
-            ensureBucketExists(bucketName);
+            // Only checked again if the bucket went missing since the last check
+            if (!bucketReady) {
+                ensureBucketExists();
+            }
 
             // Generate a unique file name
             String fileName = UUID.randomUUID() + "-" + file.getOriginalFilename();
 
             // Upload the file to MinIO
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(fileName)
-                            .contentType(file.getContentType())
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .build()
-            );
+            store(file, fileName);
+            imageVariantService.generateVariants(bucketName, fileName);
 
             // Return the file URL or path
             return String.format("/%s/%s", bucketName, fileName);
@@ -57,15 +124,87 @@ public class FileService {
         }
     }
 
+    // Streams a raw request body to MinIO as it arrives, without servlet multipart buffering
+    public String uploadStream(InputStream input, String contentType, String originalFilename) {
+        try {
+            if (contentType == null || !contentType.startsWith("image/")) {
+                throw new IllegalArgumentException("Only image files are allowed");
+            }
+            if (!bucketReady) {
+                ensureBucketExists();
+            }
+            String fileName = UUID.randomUUID() + "-" + originalFilename;
+            multipartUploader.upload(bucketName, fileName, contentType, input);
+            imageVariantService.generateVariants(bucketName, fileName);
+            return String.format("/%s/%s", bucketName, fileName);
+        } catch (IllegalArgumentException | ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            // The body is consumed, so the client has to retry once the bucket is back
+            if (isNoSuchBucket(e)) {
+                bucketReady = false;
+            }
+            throw new RuntimeException("Error uploading file to MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    // The multipart path reports S3 errors wrapped in ExecutionException or IOException
+    private static boolean isNoSuchBucket(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ErrorResponseException response
+                    && "NoSuchBucket".equals(response.errorResponse().code())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    // Cached presigned URL; signed again shortly before it would get too old to hand out
     public String getPresignedUrl(String objectName) {
+        return presignedUrls.get(objectName);
+    }
+
+    // Presigned URL of a stored image path ("/bucket/key") or of its variant fitting width
+    public String getImageUrl(String imagePath, Integer width) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return null;
+        }
+        return getPresignedUrl(imageVariantService.resolve(objectKey(imagePath), width));
+    }
+
+    // Presigned URLs of many stored image paths, keyed by path; variants are looked up at once
+    public Map<String, String> getImageUrls(Collection<String> imagePaths, Integer width) {
+        Map<String, String> objectKeys = new HashMap<>();
+        imagePaths.stream()
+                .filter(imagePath -> imagePath != null && !imagePath.isEmpty())
+                .forEach(imagePath -> objectKeys.put(imagePath, objectKey(imagePath)));
+        Map<String, String> resolved = imageVariantService.resolveAll(objectKeys.values(), width);
+        Map<String, String> urls = new HashMap<>();
+        objectKeys.forEach((imagePath, objectKey) ->
+                urls.put(imagePath, getPresignedUrl(resolved.get(objectKey))));
+        return urls;
+    }
+
+    // Object key of a stored image path, without the leading slash and bucket name
+    String objectKey(String imagePath) {
+        String path = imagePath.startsWith("/") ? imagePath.substring(1) : imagePath;
+        String bucketPrefix = bucketName + "/";
+        return path.startsWith(bucketPrefix) ? path.substring(bucketPrefix.length()) : path;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, presignedUrls, "presigned-urls");
+    }
+
+    private String presign(String objectName) {
         try {
             return minioClient.getPresignedObjectUrl(
                     GetPresignedObjectUrlArgs.builder()
                             .bucket(bucketName)
                             .object(objectName)
                             .method(Method.GET)
-                            .expiry(1, TimeUnit.HOURS) // URL valid for 1 hour
+                            .expiry((int) presignedUrlExpiry.toSeconds())
                             .build()
             );
         } catch (Exception e) {
@@ -73,11 +212,42 @@ public class FileService {
         }
     }
 
-    private void ensureBucketExists(String bucketName) throws Exception {
-        List<Bucket> buckets = minioClient.listBuckets();
-        boolean exists = buckets.stream().anyMatch(bucket -> bucket.name().equals(bucketName));
-        if (!exists) {
-            minioClient.makeBucket(io.minio.MakeBucketArgs.builder().bucket(bucketName).build());
+    // A single put; the bucket is recreated and the put repeated only if the bucket was removed
+    private void store(MultipartFile file, String fileName) throws Exception {
+        try {
+            putObject(file, fileName);
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchBucket".equals(e.errorResponse().code())) {
+                throw e;
+            }
+            bucketReady = false;
+            ensureBucketExists();
+            putObject(file, fileName);
+        }
+    }
+
+    private void putObject(MultipartFile file, String fileName) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(fileName)
+                        .contentType(file.getContentType())
+                        .stream(file.getInputStream(), file.getSize(), -1)
+                        .build()
+        );
+    }
+
+    private void ensureBucketExists() throws Exception {
+        if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build())) {
+            try {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            } catch (ErrorResponseException e) {
+                // Another instance created it in the meantime
+                if (!BUCKET_CREATED_CODES.contains(e.errorResponse().code())) {
+                    throw e;
+                }
+            }
         }
+        bucketReady = true;
     }
 }
@@ -0,0 +1,301 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.entity.ImageVariant;
+import at.technikum.springrestbackend.repository.ImageVariantRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produces downscaled JPEG variants of uploaded images in the background. The original is read
+ * back from MinIO and decoded once; every configured width below the original's is derived from
+ * the next larger variant, re-encoded at the configured quality and stored under
+ * "variants/{width}w/{original}.jpg". Stored variants are recorded in the database, so the image
+ * endpoints can serve the smallest one that still covers a requested width. The stored widths
+ * are cached per original; cache misses of a whole page are loaded with one IN query.
+ * Generation runs on a small pool with a bounded queue; when it is full the image simply keeps
+ * its original only. Publishes "files.image.variants" counters per outcome, the pool metrics
+ * under name=image-variants and the width cache under cache=image-variants.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+    // Keeps the IN list of a bulk width lookup well below the placeholder limit
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final MinioClient minioClient;
+    private final ImageVariantRepository imageVariantRepository;
+    // Largest first, so each variant can be scaled from the previous one
+    private final int[] widths;
+    private final float quality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final LoadingCache<String, int[]> variantWidths;
+    private final Counter generated;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public ImageVariantService(
+            MinioClient minioClient,
+            ImageVariantRepository imageVariantRepository,
+            MeterRegistry meterRegistry,
+            @Value("${images.variants.widths:160,320,640,1280}") int[] widths,
+            @Value("${images.variants.quality:0.8}") float quality,
+            @Value("${images.variants.max-pixels:40000000}") long maxPixels,
+            @Value("${images.variants.threads:2}") int threads,
+            @Value("${images.variants.queue-capacity:100}") int queueCapacity,
+            @Value("${images.variants.cache-ttl:10m}") Duration cacheTtl) {
+        this.minioClient = minioClient;
+        this.imageVariantRepository = imageVariantRepository;
+        this.widths = Arrays.stream(widths).boxed().sorted((a, b) -> b - a)
+                .mapToInt(Integer::intValue).toArray();
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("image-variants-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.variantWidths = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public int[] load(String objectKey) {
+                        return loadWidths(Set.of(objectKey)).get(objectKey);
+                    }
+
+                    @Override
+                    public Map<String, int[]> loadAll(Set<? extends String> objectKeys) {
+                        return loadWidths(objectKeys);
+                    }
+                });
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "image-variants", Tags.empty());
+        CaffeineCacheMetrics.monitor(meterRegistry, variantWidths, "image-variants");
+        this.generated = counter(meterRegistry, "generated");
+        this.rejected = counter(meterRegistry, "rejected");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    // Queues variant generation for a freshly stored object; never fails the upload itself
+    public void generateVariants(String bucket, String objectKey) {
+        try {
+            executor.execute(() -> generate(bucket, objectKey));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    // Object key of the smallest variant at least width pixels wide, otherwise the original
+    public String resolve(String objectKey, Integer width) {
+        if (width == null || width <= 0) {
+            return objectKey;
+        }
+        return pick(objectKey, variantWidths.get(objectKey), width);
+    }
+
+    // Same as resolve for many originals, looking up all uncached widths at once
+    public Map<String, String> resolveAll(Collection<String> objectKeys, Integer width) {
+        Map<String, String> resolved = new HashMap<>();
+        if (width == null || width <= 0) {
+            objectKeys.forEach(objectKey -> resolved.put(objectKey, objectKey));
+            return resolved;
+        }
+        variantWidths.getAll(objectKeys).forEach((objectKey, stored) ->
+                resolved.put(objectKey, pick(objectKey, stored, width)));
+        return resolved;
+    }
+
+    private static String pick(String objectKey, int[] stored, int width) {
+        for (int variantWidth : stored) {
+            if (variantWidth >= width) {
+                return variantKey(objectKey, variantWidth);
+            }
+        }
+        return objectKey;
+    }
+
+    static String variantKey(String objectKey, int width) {
+        return "variants/" + width + "w/" + objectKey + ".jpg";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    void generate(String bucket, String objectKey) {
+        try {
+            BufferedImage image = read(bucket, objectKey);
+            if (image == null) {
+                return; // Not decodable by ImageIO or too large to decode safely
+            }
+            List<ImageVariant> variants = new ArrayList<>();
+            for (int width : widths) {
+                if (width >= image.getWidth()) {
+                    continue; // Never upscale; the original already is the best fit
+                }
+                image = scale(image, width);
+                byte[] jpeg = encode(image);
+                String key = variantKey(objectKey, width);
+                put(bucket, key, jpeg);
+                variants.add(new ImageVariant(objectKey, key, width, jpeg.length));
+            }
+            imageVariantRepository.saveAll(variants);
+            variantWidths.invalidate(objectKey);
+            generated.increment(variants.size());
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Generating image variants for {} failed", objectKey, e);
+        }
+    }
+
+    // Checks the dimensions from the header before decoding any pixels
+    private BufferedImage read(String bucket, String objectKey) throws Exception {
+        try (InputStream in = minioClient.getObject(
+                GetObjectArgs.builder().bucket(bucket).object(objectKey).build());
+             ImageInputStream input = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves in steps before the final resize, which keeps bilinear scaling from aliasing
+    static BufferedImage scale(BufferedImage source, int width) {
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width) {
+            current = resize(current, current.getWidth() / 2);
+        }
+        return current.getWidth() == width ? current : resize(current, width);
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = (int) Math.max(1, Math.round((double) source.getHeight() * width
+                / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // JPEG has no alpha channel, transparent areas become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private void put(String bucket, String key, byte[] jpeg) throws Exception {
+        minioClient.putObject(PutObjectArgs.builder()
+                .bucket(bucket)
+                .object(key)
+                .contentType("image/jpeg")
+                .stream(new ByteArrayInputStream(jpeg), jpeg.length, -1)
+                .build());
+    }
+
+    // Ascending widths per original; originals without variants map to an empty array, so they
+    // are cached as well
+    private Map<String, int[]> loadWidths(Set<? extends String> objectKeys) {
+        List<String> keys = List.copyOf(objectKeys);
+        Map<String, List<Integer>> found = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK_SIZE) {
+            int to = Math.min(from + LOOKUP_CHUNK_SIZE, keys.size());
+            for (ImageVariant variant : imageVariantRepository.findByOriginalKeyIn(
+                    keys.subList(from, to))) {
+                found.computeIfAbsent(variant.getOriginalKey(), key -> new ArrayList<>())
+                        .add(variant.getWidth());
+            }
+        }
+        Map<String, int[]> widthsByKey = new HashMap<>();
+        for (String key : keys) {
+            widthsByKey.put(key, found.getOrDefault(key, List.of()).stream()
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray());
+        }
+        return widthsByKey;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("files.image.variants")
+                .description("Image variant generation by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package at.technikum.springrestbackend.service;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.minio.AbortMultipartUploadResponse;
+import io.minio.CreateMultipartUploadResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.errors.MinioException;
+import io.minio.messages.Part;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exposes the low-level S3 multipart calls of {@link MinioAsyncClient}, so parts can be sent
+ * concurrently from our own buffers instead of through the sequential {@code putObject}.
+ * A null region means the client's configured region is used.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(
+            String bucket, String object, String contentType)
+            throws IOException, GeneralSecurityException, MinioException {
+        return createMultipartUploadAsync(bucket, null, object,
+                ImmutableMultimap.of("Content-Type", contentType), null);
+    }
+
+    public CompletableFuture<UploadPartResponse> uploadPart(
+            String bucket, String object, String uploadId, int partNumber, byte[] data, int length)
+            throws IOException, GeneralSecurityException, MinioException {
+        return uploadPartAsync(bucket, null, object, data, length, uploadId, partNumber,
+                null, null);
+    }
+
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUpload(
+            String bucket, String object, String uploadId, Part[] parts)
+            throws IOException, GeneralSecurityException, MinioException {
+        return completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null);
+    }
+
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(
+            String bucket, String object, String uploadId)
+            throws IOException, GeneralSecurityException, MinioException {
+        return abortMultipartUploadAsync(bucket, null, object, uploadId, null, null);
+    }
+}
@@ -0,0 +1,267 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.messages.Part;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams an upload to MinIO while it is being read. The stream is cut into part-size chunks
+ * held in a shared, bounded pool of buffers; an upload that fits into one chunk is a single
+ * putObject, anything larger becomes an S3 multipart upload with up to parts-in-flight parts
+ * sent concurrently. Heap use is therefore capped at buffer-pool-size x part-size overall and
+ * nothing touches the disk. When no buffer frees up within acquire-timeout the upload is
+ * rejected with 503. Pool usage is published as "files.upload.buffers.*" gauges.
+ */
+@Component
+public class MultipartUploader implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploader.class);
+    // S3 rejects smaller parts (except the last one)
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    // How long an abort waits for parts still being sent, and then for the abort itself
+    private static final long ABORT_WAIT_SECONDS = 30;
+
+    private final MinioClient minioClient;
+    private final MinioMultipartClient multipartClient;
+    private final int partSize;
+    private final int partsInFlight;
+    private final int poolSize;
+    private final long maxSize;
+    private final long acquireTimeoutMillis;
+    private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<>();
+    private final AtomicInteger allocatedBuffers = new AtomicInteger();
+
+    public MultipartUploader(MinioClient minioClient, MinioMultipartClient multipartClient,
+                             @Value("${minio.upload.part-size:8MB}") DataSize partSize,
+                             @Value("${minio.upload.parts-in-flight:4}") int partsInFlight,
+                             @Value("${minio.upload.buffer-pool-size:16}") int poolSize,
+                             @Value("${minio.upload.max-size:20MB}") DataSize maxSize,
+                             @Value("${minio.upload.acquire-timeout:5s}") Duration acquireTimeout) {
+        if (partSize.toBytes() < MIN_PART_SIZE || partSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "minio.upload.part-size must be between 5MB and 2GB");
+        }
+        this.minioClient = minioClient;
+        this.multipartClient = multipartClient;
+        this.partSize = (int) partSize.toBytes();
+        this.partsInFlight = partsInFlight;
+        this.poolSize = poolSize;
+        this.maxSize = maxSize.toBytes();
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    // Uploads everything the stream delivers and returns the number of bytes stored
+    public long upload(String bucket, String object, String contentType, InputStream input)
+            throws Exception {
+        byte[] first = acquireBuffer();
+        PushbackInputStream rest;
+        try {
+            int length = readFully(input, first);
+            // A full buffer may still be the whole body, so peek one byte before going multipart
+            int next = length < partSize ? -1 : input.read();
+            if (next < 0) {
+                checkUpload(length, null);
+                putSingle(bucket, object, contentType, first, length);
+                return length;
+            }
+            rest = new PushbackInputStream(input, 1);
+            rest.unread(next);
+        } catch (Exception e) {
+            releaseBuffer(first);
+            throw e;
+        }
+        return uploadParts(bucket, object, contentType, rest, first);
+    }
+
+    private void putSingle(String bucket, String object, String contentType, byte[] data,
+                           int length) throws Exception {
+        try {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .contentType(contentType)
+                    .stream(new ByteArrayInputStream(data, 0, length), length, -1)
+                    .build());
+        } finally {
+            releaseBuffer(data);
+        }
+    }
+
+    // The first buffer is already full; parts are numbered from 1 in stream order
+    private long uploadParts(String bucket, String object, String contentType, InputStream input,
+                             byte[] first) throws Exception {
+        String uploadId;
+        try {
+            uploadId = multipartClient.createMultipartUpload(bucket, object, contentType)
+                    .get().result().uploadId();
+        } catch (Exception e) {
+            releaseBuffer(first); // Nothing to abort yet, but the buffer must go back to the pool
+            throw e;
+        }
+        List<CompletableFuture<Part>> parts = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(partsInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        byte[] buffer = first;
+        int length = partSize;
+        long total = 0;
+        try {
+            while (length > 0) {
+                total += length;
+                checkUpload(total, failure.get());
+                inFlight.acquire();
+                byte[] part = buffer;
+                buffer = null;
+                parts.add(sendPart(bucket, object, uploadId, parts.size() + 1, part, length,
+                        inFlight, failure));
+                buffer = acquireBuffer();
+                length = readFully(input, buffer);
+            }
+            releaseBuffer(buffer);
+            buffer = null;
+            multipartClient.completeMultipartUpload(bucket, object, uploadId, awaitParts(parts))
+                    .get();
+            return total;
+        } catch (Exception e) {
+            releaseBuffer(buffer);
+            abort(bucket, object, uploadId, parts, e);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Part> sendPart(String bucket, String object, String uploadId,
+                                             int partNumber, byte[] buffer, int length,
+                                             Semaphore inFlight,
+                                             AtomicReference<Throwable> failure) throws Exception {
+        CompletableFuture<Part> part;
+        try {
+            part = multipartClient.uploadPart(bucket, object, uploadId, partNumber, buffer, length)
+                    .thenApply(response -> new Part(partNumber, response.etag()));
+        } catch (Exception e) {
+            releaseBuffer(buffer);
+            inFlight.release();
+            throw e;
+        }
+        return part.whenComplete((done, error) -> {
+            if (error != null) {
+                failure.compareAndSet(null, error);
+            }
+            releaseBuffer(buffer);
+            inFlight.release();
+        });
+    }
+
+    private void checkUpload(long total, Throwable failure) throws Exception {
+        if (total > maxSize) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of "
+                    + DataSize.ofBytes(maxSize).toMegabytes() + "MB");
+        }
+        if (failure != null) {
+            throw new IOException("Uploading a part failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    private static Part[] awaitParts(List<CompletableFuture<Part>> parts) throws Exception {
+        Part[] done = new Part[parts.size()];
+        for (int i = 0; i < done.length; i++) {
+            try {
+                done[i] = parts.get(i).get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        return done;
+    }
+
+    // Lets in-flight parts finish, then drops the upload so no parts are left behind. A failed
+    // abort leaves the parts stored, so it is logged and attached to the upload's own error.
+    private void abort(String bucket, String object, String uploadId,
+                       List<CompletableFuture<Part>> parts, Exception cause) {
+        try {
+            try {
+                CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                        .get(ABORT_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // Failed parts are done too, and parts still sending fail once the upload is gone
+            }
+            multipartClient.abortMultipartUpload(bucket, object, uploadId)
+                    .get(ABORT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Aborting multipart upload {} of {}/{} failed", uploadId, bucket, object, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private byte[] acquireBuffer() throws InterruptedException {
+        byte[] buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocatedBuffers.incrementAndGet() <= poolSize) {
+            return new byte[partSize];
+        }
+        allocatedBuffers.decrementAndGet();
+        buffer = freeBuffers.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (buffer == null) {
+            throw new ServiceUnavailableException("Upload capacity exhausted, try again later",
+                    Math.max(1, TimeUnit.MILLISECONDS.toSeconds(acquireTimeoutMillis)));
+        }
+        return buffer;
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        if (buffer != null) {
+            freeBuffers.offer(buffer);
+        }
+    }
+
+    // Fills the buffer unless the stream ends first; returns the number of bytes read
+    private static int readFully(InputStream input, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int read = input.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("files.upload.buffers.allocated", allocatedBuffers, AtomicInteger::get)
+                .register(registry);
+        Gauge.builder("files.upload.buffers.in-use", this,
+                        uploader -> uploader.allocatedBuffers.get() - uploader.freeBuffers.size())
+                .register(registry);
+    }
+}
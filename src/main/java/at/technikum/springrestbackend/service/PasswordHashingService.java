@@ -0,0 +1,113 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.config.BCryptCostCalibrator;
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool with a bounded queue, so a
+ * burst of logins or registrations cannot occupy the request threads. When the queue is full
+ * the work is rejected right away with a ServiceUnavailableException (503 + Retry-After).
+ * Publishes "auth.password.hashing" timers (queue wait + hashing, per operation), a rejection
+ * counter and the pool metrics under name=password-hashing.
+ */
+@Service
+public class PasswordHashingService {
+
+    // "$2a$12$..." and the other BCrypt revisions, with the two-digit cost captured
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejections;
+
+    public PasswordHashingService(
+            BCryptPasswordEncoder passwordEncoder,
+            BCryptCostCalibrator bcryptCostCalibrator,
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:2}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.cost = bcryptCostCalibrator.getCost();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing", Tags.empty());
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.verifyTimer = timer(meterRegistry, "verify");
+        this.rejections = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // True when the stored hash was made with a lower cost than the one currently in use; a hash
+    // with a higher cost is kept, and one without a readable cost is never rehashed
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.lookingAt() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                T result = work.get();
+                timer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return result;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ServiceUnavailableException(
+                    "Too many authentication requests, please retry later", retryAfterSeconds);
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hashing")
+                .description("Time from submission until the password hash operation finished")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,188 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.dto.ImportResult;
+import at.technikum.springrestbackend.dto.ProductDto;
+import at.technikum.springrestbackend.entity.Product;
+import at.technikum.springrestbackend.util.CsvLine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a NDJSON or CSV product feed from the request body into the database in JDBC batches.
+ * Rows are parsed and validated one at a time; invalid rows are reported and skipped. A batch
+ * the database rejects is retried row by row, so only the rows that really fail are reported.
+ */
+@Service
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${products.import.batch-size:500}")
+    private int batchSize = 500;
+
+    public ProductImportService(ProductService productService, ObjectMapper objectMapper,
+                                Validator validator) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    private record Row(long line, ProductDto productDto, Product product) {
+    }
+
+    private static final class Progress {
+        private long imported;
+        private long failed;
+        private final List<ImportResult.ImportError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportResult.ImportError(line, message));
+            }
+        }
+    }
+
+    public ImportResult importProducts(InputStream body, boolean csv, boolean gzip) throws IOException {
+        long startNanos = System.nanoTime();
+        InputStream input = gzip ? new GZIPInputStream(body, 64 * 1024) : body;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Progress progress = new Progress();
+        String[] header = csv ? CsvLine.parse(reader.readLine()) : null;
+        long lineNumber = csv ? 1 : 0;
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Row row = parseRow(line, header, lineNumber, progress);
+            if (row != null) {
+                batch.add(row);
+            }
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, progress);
+            }
+        }
+        writeBatch(batch, progress);
+        return toResult(progress, System.nanoTime() - startNanos);
+    }
+
+    private Row parseRow(String line, String[] header, long lineNumber, Progress progress) {
+        try {
+            ProductDto productDto = header == null
+                    ? objectMapper.readValue(line, ProductDto.class)
+                    : objectMapper.convertValue(toCsvRecord(header, line), ProductDto.class);
+            String violations = validate(productDto);
+            if (violations.isEmpty() && productDto.stockQuantity() == null) {
+                violations = "stockQuantity: Stock quantity cannot be null";
+            }
+            if (!violations.isEmpty()) {
+                progress.fail(lineNumber, violations);
+                return null;
+            }
+            Product product = toProduct(productDto);
+            violations = validate(product);
+            if (!violations.isEmpty()) {
+                progress.fail(lineNumber, violations);
+                return null;
+            }
+            return new Row(lineNumber, productDto, product);
+        } catch (JsonProcessingException e) {
+            progress.fail(lineNumber, "Malformed row: " + e.getOriginalMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            progress.fail(lineNumber, "Malformed row: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeBatch(List<Row> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            productService.addProducts(batch.stream().map(Row::product).toList());
+            progress.imported += batch.size();
+        } catch (RuntimeException e) {
+            // The whole batch was rolled back; retry it row by row so only offending rows fail
+            batch.forEach(row -> writeRow(row, progress));
+        }
+        batch.clear();
+    }
+
+    private void writeRow(Row row, Progress progress) {
+        try {
+            // Fresh entity, the failed batch already assigned an ID to the original one
+            productService.addProducts(List.of(toProduct(row.productDto())));
+            progress.imported++;
+        } catch (RuntimeException e) {
+            progress.fail(row.line(), "Insert failed: " + e.getMessage());
+        }
+    }
+
+    private Map<String, String> toCsvRecord(String[] header, String line) {
+        String[] values = CsvLine.parse(line);
+        if (values.length != header.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + header.length + " columns but got " + values.length);
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            record.put(header[i].trim(), values[i].isEmpty() ? null : values[i]);
+        }
+        return record;
+    }
+
+    private <T> String validate(T value) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Product toProduct(ProductDto productDto) {
+        return new Product(
+                productDto.name(),
+                productDto.price(),
+                productDto.description(),
+                productDto.category(),
+                productDto.stockQuantity(),
+                productDto.imageUrl(),
+                productDto.createdByUserName(),
+                productDto.updatedByUserName()
+        );
+    }
+
+    private ImportResult toResult(Progress progress, long elapsedNanos) {
+        long durationMillis = elapsedNanos / 1_000_000;
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        double rowsPerSecond = Math.round(progress.imported / seconds * 10) / 10.0;
+        return new ImportResult(
+                progress.imported, progress.failed, durationMillis, rowsPerSecond, progress.errors);
+    }
+}
@@ -1,24 +1,129 @@
 package at.technikum.springrestbackend.service;
 
+import at.technikum.springrestbackend.cache.ProductCache;
+import at.technikum.springrestbackend.dto.CatalogVersion;
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.dto.CursorPage;
 import at.technikum.springrestbackend.dto.ProductDto;
+import at.technikum.springrestbackend.dto.ProductFilter;
+import at.technikum.springrestbackend.dto.ProductImage;
 import at.technikum.springrestbackend.entity.Product;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
+import at.technikum.springrestbackend.search.ProductFacets;
+import at.technikum.springrestbackend.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import at.technikum.springrestbackend.repository.ProductRepository;
+import at.technikum.springrestbackend.repository.ProductSpecifications;
+import at.technikum.springrestbackend.util.ProductCursor;
 
 @Service
 public class ProductService {
 
+    // Keeps IN lists well below the prepared statement placeholder limit
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // Virtual field: presigned URL of the product image (or of the variant fitting ?w=)
+    public static final String IMAGE_SRC_FIELD = "imageSrc";
+
+    // Columns a client may request through a sparse fieldset (?fields=id,name,price)
+    private static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "id", "name", "price", "description", "category", "stockQuantity", "imageUrl",
+            "createdAt", "updatedAt", "createdByUserName", "updatedByUserName", IMAGE_SRC_FIELD);
+
+    // Upper bound for batch image URL lookups, keeps the IN list and the response small
+    private static final int MAX_IMAGE_BATCH = 200;
+
     private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacets productFacets;
+    private final FileService fileService;
+
+    @Value("${products.export.fetch-size:500}")
+    private int exportFetchSize = 500;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ObjectMapper objectMapper,
+                          ProductCache productCache, ProductSearchIndex productSearchIndex,
+                          ProductFacets productFacets, FileService fileService) {
         this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productFacets = productFacets;
+        this.fileService = fileService;
+    }
+
+    // Build the search index and the facet counters in one pass once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildProductIndexes() {
+        productSearchIndex.clear();
+        productFacets.clear();
+        try (Stream<Product> products = productRepository.streamAll(exportFetchSize)) {
+            products.forEach(product -> {
+                productSearchIndex.index(product);
+                productFacets.put(product);
+            });
+        }
+    }
+
+    // Compare the facet counters with a GROUP BY and rebuild only them if they drifted
+    @Scheduled(initialDelayString = "${products.facets.reconcile-interval:PT15M}",
+            fixedDelayString = "${products.facets.reconcile-interval:PT15M}")
+    @Transactional(readOnly = true)
+    public void reconcileFacets() {
+        List<CategoryFacet> expected = productRepository.findCategoryFacets().stream()
+                .sorted(Comparator.comparing(CategoryFacet::category))
+                .toList();
+        if (!expected.equals(productFacets.snapshot())) {
+            rebuildFacets();
+        }
+    }
+
+    // Only the facet counters; both the search index and the old counters keep serving meanwhile
+    private void rebuildFacets() {
+        try (Stream<Product> products = productRepository.streamAll(exportFetchSize)) {
+            productFacets.rebuild(products);
+        }
+    }
+
+    // Per-category counts and price ranges, served from memory
+    public List<CategoryFacet> getCategoryFacets() {
+        return productFacets.snapshot();
     }
 
     // Get all products
@@ -26,14 +131,136 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    // Get only the requested columns of all products; imageSrc would presign the whole catalog
+    // in one response, so it is only offered page by page
+    public List<Map<String, Object>> getAllProductFields(List<String> fields) {
+        List<String> selected = selectableFields(fields);
+        if (selected.contains(IMAGE_SRC_FIELD)) {
+            throw new IllegalArgumentException(
+                    IMAGE_SRC_FIELD + " is only available on the paged /products/sorted endpoint");
+        }
+        return productRepository.findFields(selected, Pageable.unpaged());
+    }
+
+    // True when the fieldset asks for presigned image URLs, which expire and must not be 304ed
+    public static boolean requestsImageSrc(List<String> fields) {
+        return fields.stream().anyMatch(field -> IMAGE_SRC_FIELD.equals(field.trim()));
+    }
+
+    // Presigned image URLs of many products with one IN query; products without image are left out
+    public Map<UUID, String> getImageUrls(List<UUID> ids, Integer width) {
+        List<UUID> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.size() > MAX_IMAGE_BATCH) {
+            throw new IllegalArgumentException(
+                    "At most " + MAX_IMAGE_BATCH + " product IDs are allowed per request");
+        }
+        Map<UUID, String> urls = new LinkedHashMap<>();
+        if (distinctIds.isEmpty()) {
+            return urls;
+        }
+        List<ProductImage> images = productRepository.findImagesByIdIn(distinctIds).stream()
+                .filter(image -> image.imageUrl() != null && !image.imageUrl().isEmpty())
+                .toList();
+        Map<String, String> byPath = fileService.getImageUrls(
+                images.stream().map(ProductImage::imageUrl).toList(), width);
+        images.forEach(image -> urls.put(image.id(), byPath.get(image.imageUrl())));
+        return urls;
+    }
+
+    // Write all products as NDJSON (one product per line) while reading them from a DB cursor
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class);
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAll(exportFetchSize)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+
     // Get a single product by ID
     public Product getProduct(UUID id) {
-        return productRepository.findById(id)
+        return findProduct(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
     }
 
+    // Look up a product by ID, served from the product cache when possible
+    public Optional<Product> findProduct(UUID id) {
+        return productCache.get(id, productRepository::findById);
+    }
+
+    // Cheap version of the whole catalog (count + latest update) used for ETags
+    public CatalogVersion getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+
     public Page<Product> getProductsWithSorting(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        return productRepository.findAll(indexedSort(pageable));
+    }
+
+    // Same page as getProductsWithSorting, but selecting only the requested columns
+    public Page<Map<String, Object>> getProductFieldsWithSorting(List<String> fields,
+                                                                 Pageable pageable,
+                                                                 Integer width) {
+        Pageable sorted = indexedSort(pageable);
+        List<String> selected = selectableFields(fields);
+        List<Map<String, Object>> content = withImageSrc(
+                productRepository.findFields(columns(selected), sorted), selected, width);
+        return PageableExecutionUtils.getPage(content, sorted, productRepository::count);
+    }
+
+    // Products matching all given filters, sorted by one of the indexed columns
+    public Page<Product> filterProducts(ProductFilter filter, Pageable pageable) {
+        if (filter.minPrice() != null && filter.maxPrice() != null
+                && filter.minPrice() > filter.maxPrice()) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (filter.createdFrom() != null && filter.createdTo() != null
+                && filter.createdFrom().isAfter(filter.createdTo())) {
+            throw new IllegalArgumentException("createdFrom must not be after createdTo");
+        }
+        return productRepository.findAll(ProductSpecifications.matching(filter),
+                indexedSort(pageable));
+    }
+
+    // Full-text search over name, description and category, ranked by relevance
+    public Page<Product> searchProducts(String query, Pageable pageable) {
+        List<UUID> rankedIds = productSearchIndex.search(query);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<UUID> pageIds = rankedIds.subList(from, to);
+
+        // Load only the requested page with one IN query and restore the ranking order
+        Map<UUID, Product> productsById = productRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    // Get the page after the given cursor with a seek query (no OFFSET, no COUNT)
+    public CursorPage<Product> getProductsAfterCursor(String cursor, Sort sort, int size) {
+        ProductCursor position = cursor == null || cursor.isBlank()
+                ? ProductCursor.first(sort)
+                : ProductCursor.decode(cursor);
+        int pageSize = Math.max(size, 1);
+
+        // Fetch one extra row to find out whether there is a next page
+        List<Product> rows = productRepository.findPageAfter(position, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<Product> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? position.after(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPage<>(content, nextCursor, content.size());
     }
 
     // Add a new product
@@ -49,12 +276,25 @@ public class ProductService {
                 productDto.updatedByUserName()
         );
         productRepository.save(product);
+        productSearchIndex.index(product);
+        productFacets.put(product);
         return product.getId();
     }
 
+    // Add many already validated products at once (used by the bulk import)
+    public void addProducts(List<Product> products) {
+        productRepository.insertAll(products);
+        products.forEach(product -> {
+            productSearchIndex.index(product);
+            productFacets.put(product);
+        });
+    }
+
     // Update (patch) product by ID
     public Product updateProduct(UUID id, ProductDto productDto) {
-        Product product = getProduct(id);
+        // Load from the database, never mutate the cached instance
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         if (productDto.name() != null) {
             product.setName(productDto.name());
         }
@@ -76,7 +316,72 @@ public class ProductService {
         if (productDto.updatedByUserName() != null) {
             product.setUpdatedByUserName(productDto.updatedByUserName());
         }
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productCache.evict(id);
+        productSearchIndex.index(savedProduct);
+        productFacets.put(savedProduct);
+        return savedProduct;
+    }
+
+    // Set the image of a product after an upload
+    public void updateImageUrl(UUID id, String imageUrl) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        product.setImageUrl(imageUrl);
+        productRepository.save(product);
+        productCache.evict(id);
+    }
+
+    // Change the price of every product in a category by a percentage with one UPDATE
+    @Transactional
+    public int repriceCategory(String category, double percent) {
+        List<UUID> ids = productRepository.findIdsByCategory(category);
+        double factor = 1 + percent / 100;
+        int updated = productRepository.scalePriceByCategory(category, factor, LocalDateTime.now());
+        afterCommit(() -> {
+            productCache.evictAll(ids);
+            ids.forEach(id -> productFacets.scalePrice(id, factor));
+        });
+        return updated;
+    }
+
+    // Set the stock of the given products with one UPDATE per chunk of IDs, all or nothing
+    @Transactional
+    public int updateStock(List<UUID> ids, int stockQuantity) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = inChunks(ids,
+                chunk -> productRepository.updateStockByIds(chunk, stockQuantity, now));
+        afterCommit(() -> {
+            productCache.evictAll(ids);
+            ids.forEach(id -> productFacets.setStock(id, stockQuantity));
+        });
+        return updated;
+    }
+
+    // Delete the given products with one DELETE per chunk of IDs, all or nothing
+    @Transactional
+    public int removeProducts(List<UUID> ids) {
+        int deleted = inChunks(ids, productRepository::deleteByIdIn);
+        afterCommit(() -> evictRemoved(ids));
+        return deleted;
+    }
+
+    // Delete all (or only the out-of-stock) products of a category with one DELETE; the IDs are
+    // read in the same transaction only to update the caches and indexes
+    @Transactional
+    public int removeProductsByCategory(String category, boolean outOfStockOnly) {
+        List<UUID> ids;
+        int deleted;
+        if (outOfStockOnly) {
+            ids = productRepository.findOutOfStockIdsByCategory(category);
+            deleted = productRepository.deleteOutOfStockByCategory(category);
+        } else {
+            ids = productRepository.findIdsByCategory(category);
+            deleted = productRepository.deleteByCategory(category);
+        }
+        List<UUID> removed = ids;
+        afterCommit(() -> evictRemoved(removed));
+        return deleted;
     }
 
     // Remove product by ID
@@ -85,5 +390,113 @@ public class ProductService {
             throw new ResourceNotFoundException("Product not found");
         }
         productRepository.deleteById(id);
+        productCache.evict(id);
+        productSearchIndex.remove(id);
+        productFacets.remove(id);
+    }
+
+    // Keeps IN lists below BULK_CHUNK_SIZE; returns the summed row counts
+    private static int inChunks(List<UUID> ids, ToIntFunction<List<UUID>> statement) {
+        int rows = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            int to = Math.min(from + BULK_CHUNK_SIZE, ids.size());
+            rows += statement.applyAsInt(ids.subList(from, to));
+        }
+        return rows;
+    }
+
+    // Caches and indexes follow a bulk statement only once it is committed: evicting earlier lets
+    // a concurrent read cache the old row again, and a rollback would leave the indexes wrong.
+    // Without a transaction (e.g. in unit tests) the update runs right away.
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private void evictRemoved(List<UUID> ids) {
+        productCache.evictAll(ids);
+        ids.forEach(id -> {
+            productSearchIndex.remove(id);
+            productFacets.remove(id);
+        });
+    }
+
+    private static List<String> selectableFields(List<String> fields) {
+        List<String> selected = fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        selected.stream()
+                .filter(field -> !SELECTABLE_FIELDS.contains(field))
+                .findFirst()
+                .ifPresent(field -> {
+                    throw new IllegalArgumentException("Unknown field: " + field);
+                });
+        return selected;
+    }
+
+    // Columns to select: imageSrc is computed from imageUrl
+    private static List<String> columns(List<String> selected) {
+        if (!selected.contains(IMAGE_SRC_FIELD)) {
+            return selected;
+        }
+        return Stream.concat(selected.stream().filter(field -> !IMAGE_SRC_FIELD.equals(field)),
+                        Stream.of("imageUrl"))
+                .distinct()
+                .toList();
+    }
+
+    // Replaces the stored image paths of a page by their presigned URLs, resolving the variants
+    // of all rows at once; the paths are kept when imageUrl was requested too
+    private List<Map<String, Object>> withImageSrc(List<Map<String, Object>> rows,
+                                                   List<String> selected, Integer width) {
+        if (!selected.contains(IMAGE_SRC_FIELD)) {
+            return rows;
+        }
+        Map<String, String> urls = fileService.getImageUrls(
+                rows.stream().map(row -> (String) row.get("imageUrl")).toList(), width);
+        boolean keepPath = selected.contains("imageUrl");
+        rows.forEach(row -> {
+            Object path = keepPath ? row.get("imageUrl") : row.remove("imageUrl");
+            row.put(IMAGE_SRC_FIELD, path == null ? null : urls.get((String) path));
+        });
+        return rows;
+    }
+
+    // Allow a single whitelisted sort column and add id as tie-breaker in the same direction,
+    // so ORDER BY matches a (column, id) index and never needs a filesort
+    private static Pageable indexedSort(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .filter(order -> !"id".equals(order.getProperty()))
+                .toList();
+        if (orders.size() > 1) {
+            throw new IllegalArgumentException("Only one sort property is supported");
+        }
+        Sort.Order order = orders.isEmpty()
+                ? pageable.getSort().getOrderFor("id")
+                : orders.get(0);
+        if (order == null) {
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+        if (!ProductCursor.SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+        }
+        Sort sort = Sort.by(order);
+        if (!"id".equals(order.getProperty())) {
+            sort = sort.and(Sort.by(order.getDirection(), "id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
     }
 }
@@ -0,0 +1,153 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.dto.AuthTokens;
+import at.technikum.springrestbackend.entity.RefreshToken;
+import at.technikum.springrestbackend.entity.User;
+import at.technikum.springrestbackend.exception.UnauthorizedException;
+import at.technikum.springrestbackend.property.JwtProperties;
+import at.technikum.springrestbackend.repository.RefreshTokenRepository;
+import at.technikum.springrestbackend.repository.UserRepository;
+import at.technikum.springrestbackend.security.jwt.TokenRevocations;
+import at.technikum.springrestbackend.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues access tokens together with single-use refresh tokens. Refresh tokens are stored as
+ * SHA-256 digests; a bounded cache in front of the table answers most refreshes without a
+ * SELECT, otherwise one indexed lookup (with the user fetched in the same query) is enough.
+ * Every refresh rotates the token: the old one is deleted before a new pair is issued.
+ */
+@Service
+public class RefreshTokenService implements MeterBinder {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocations tokenRevocations;
+    private final JwtProperties jwtProperties;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Cache<String, RefreshSession> sessions;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository, JwtUtil jwtUtil,
+                               TokenRevocations tokenRevocations, JwtProperties jwtProperties,
+                               @Value("${security.jwt.refresh-cache.maximum-size:10000}")
+                               long cacheSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocations = tokenRevocations;
+        this.jwtProperties = jwtProperties;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(jwtProperties.getRefreshTokenTtl())
+                .recordStats()
+                .build();
+    }
+
+    // New access token plus a new refresh token for a freshly authenticated user
+    public AuthTokens issueTokens(User user) {
+        return issueTokens(RefreshSession.of(user));
+    }
+
+    // Trade a refresh token for a new token pair; the presented token cannot be used again
+    public AuthTokens refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        String tokenHash = digest(refreshToken);
+        RefreshSession session = sessions.getIfPresent(tokenHash);
+        if (session == null) {
+            session = refreshTokenRepository.findByTokenHash(tokenHash)
+                    .map(RefreshSession::of)
+                    .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        }
+        sessions.invalidate(tokenHash);
+        // Deleting first makes concurrent reuse of the same token fail for all but one caller
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0
+                || session.expiresAt().isBefore(LocalDateTime.now())
+                || tokenRevocations.isRevoked(session.userId(), session.tokenVersion())) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        return issueTokens(session);
+    }
+
+    // Drop all refresh tokens of a user (e.g. before the user is deleted)
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        sessions.asMap().values().removeIf(session -> session.userId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-cleanup-interval:PT1H}")
+    public void deleteExpiredTokens() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, sessions, "refresh-tokens");
+    }
+
+    private AuthTokens issueTokens(RefreshSession session) {
+        String accessToken = jwtUtil.generateToken(
+                session.userId(), session.email(), session.role(), session.tokenVersion());
+
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String refreshToken = ENCODER.encodeToString(random);
+        String tokenHash = digest(refreshToken);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(jwtProperties.getRefreshTokenTtl());
+
+        // A reference is enough for the foreign key, so the user is not loaded again
+        refreshTokenRepository.save(new RefreshToken(tokenHash,
+                userRepository.getReferenceById(session.userId()), session.tokenVersion(), expiresAt));
+        sessions.put(tokenHash, session.withExpiry(expiresAt));
+        return new AuthTokens(accessToken, refreshToken, jwtUtil.getAccessTokenTtl().toSeconds());
+    }
+
+    private static String digest(String refreshToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(sha256.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // What a refresh needs to mint the next access token, without touching the user row
+    private record RefreshSession(UUID userId, String email, String role, int tokenVersion,
+                                  LocalDateTime expiresAt) {
+
+        static RefreshSession of(User user) {
+            return new RefreshSession(user.getId(), user.getEmail(), user.getRole().name(),
+                    user.getTokenVersion(), null);
+        }
+
+        static RefreshSession of(RefreshToken token) {
+            User user = token.getUser();
+            return new RefreshSession(user.getId(), user.getEmail(), user.getRole().name(),
+                    token.getTokenVersion(), token.getExpiresAt());
+        }
+
+        RefreshSession withExpiry(LocalDateTime expiry) {
+            return new RefreshSession(userId, email, role, tokenVersion, expiry);
+        }
+    }
+}
@@ -2,10 +2,16 @@ package at.technikum.springrestbackend.service;
 
 import at.technikum.springrestbackend.dto.UserDto;
 import at.technikum.springrestbackend.entity.User;
+import at.technikum.springrestbackend.exception.ConflictException;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
 import at.technikum.springrestbackend.repository.UserRepository;
+import at.technikum.springrestbackend.security.jwt.AuthenticatedUser;
+import at.technikum.springrestbackend.security.jwt.TokenRevocations;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -13,22 +19,57 @@ import org.springframework.security.core.GrantedAuthority;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    private final PasswordHashingService passwordHashingService;
+    private final TokenRevocations tokenRevocations;
+    private final RefreshTokenService refreshTokenService;
+    private final Executor databaseExecutor;
+
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       TokenRevocations tokenRevocations, RefreshTokenService refreshTokenService,
+                       @Qualifier("applicationTaskExecutor") Executor databaseExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.tokenRevocations = tokenRevocations;
+        this.refreshTokenService = refreshTokenService;
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    // Normalized identifier columns of existing users are filled once at startup
+    @PostConstruct
+    void normalizeLegacyIdentifiers() {
+        userRepository.normalizeLegacyIdentifiers();
     }
 
-    public void registerUser(User user) {
+    // Hashes the password on the password hashing pool, then saves the user on the application
+    // executor, so slow inserts never hold one of the few hashing threads
+    public CompletableFuture<Void> registerUser(User user) {
         this.checkUserProfileExists(user);
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+        return passwordHashingService.encode(user.getPassword())
+                .thenAcceptAsync(encodedPassword -> {
+                    user.setPassword(encodedPassword);
+                    saveUnique(user);
+                }, databaseExecutor);
+    }
+
+    // Duplicate emails/usernames are rejected by the unique indexes, not by a lookup first
+    private User saveUnique(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("A user with this email or username already exists");
+        }
+    }
+
+    // Store a password hash made with the current BCrypt cost
+    public void updatePasswordHash(UUID id, String encodedPassword) {
+        userRepository.updatePassword(id, encodedPassword);
     }
 
     public Optional<User> findByEmail(String email) {
@@ -38,6 +79,11 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
+    // Case-insensitive lookup by email or username in a single query
+    public Optional<User> findByEmailOrUsername(String identifier) {
+        return userRepository.findByEmailOrUsername(identifier);
+    }
+
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -62,8 +108,12 @@ public class UserService {
         if (userDetails.country() != null) {
             user.setCountry(userDetails.country());
         }
+        // A changed role or deactivation invalidates all tokens issued so far
+        boolean revokeTokens = false;
         if (userDetails.role() != null) {
-            user.setRole(User.Role.valueOf(userDetails.role()));
+            User.Role role = User.Role.valueOf(userDetails.role());
+            revokeTokens = role != user.getRole();
+            user.setRole(role);
         }
         if (userDetails.profilePictureUrl() != null) {
             user.setProfilePictureUrl(userDetails.profilePictureUrl());
@@ -75,20 +125,38 @@ public class UserService {
             user.setDetailedSalutation(userDetails.detailedSalutation());
         }
         if (userDetails.isActive() != null ) {
+            revokeTokens |= !userDetails.isActive();
             user.setIsActive(userDetails.isActive());
         }
-        return userRepository.save(user);
+        if (revokeTokens) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+        User saved = saveUnique(user);
+        if (revokeTokens) {
+            tokenRevocations.revokeBefore(saved.getId(), saved.getTokenVersion());
+        }
+        if (userDetails.isActive() != null) {
+            tokenRevocations.setLocked(saved.getId(), !userDetails.isActive());
+        }
+        return saved;
     }
 
     // Delete user
     public void deleteUser(UUID id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        refreshTokenService.revokeAll(id);
         userRepository.delete(user);
+        tokenRevocations.setLocked(id, true);
     }
 
     public UUID getAuthenticatedUserId() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Stateless tokens carry the user id, so no lookup is needed
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        String email = authentication.getName();
         return findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Authenticated user not found"))
                 .getId();
@@ -0,0 +1,40 @@
+package at.technikum.springrestbackend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 parser for a single CSV line: comma separated, fields optionally
+ * enclosed in double quotes, embedded quotes escaped as "". Line breaks inside fields
+ * are not supported.
+ */
+public final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    public static String[] parse(String line) {
+        if (line == null) {
+            return new String[0];
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
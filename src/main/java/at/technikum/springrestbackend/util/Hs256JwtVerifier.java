@@ -0,0 +1,215 @@
+package at.technikum.springrestbackend.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Verifies the HS256 tokens issued by {@link JwtUtil} without going through a JSON library.
+ * Each thread keeps its own {@link Mac} and scratch buffers; the signature is compared in
+ * constant time against the Base64URL characters of the token, and only the claims this
+ * application reads ({@code sub}, {@code role}, {@code exp}, {@code uid}, {@code ver}) are
+ * extracted from the payload. Tokens without an expiry are rejected.
+ */
+public class Hs256JwtVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    // Base64URL of {"alg":"HS256"}, the header jjwt writes for our tokens
+    private static final String DEFAULT_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+    private static final int SIGNATURE_CHARS = 43;
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    private static final byte[][] HEADER_NAMES = names("alg", "zip", "crit");
+    private static final byte[][] CLAIM_NAMES =
+            names(Claims.SUBJECT, "role", Claims.EXPIRATION, JwtUtil.USER_ID_CLAIM,
+                    JwtUtil.TOKEN_VERSION_CLAIM);
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Scratch> scratch;
+
+    public Hs256JwtVerifier(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+    }
+
+    // Claims of a correctly signed, unexpired token; null for anything else
+    public Claims verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    Claims verify(String token, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.length() - secondDot - 1 != SIGNATURE_CHARS) {
+            return null;
+        }
+        Scratch buffers = scratch.get();
+        if (!signatureMatches(token, secondDot, buffers)
+                || !headerAccepted(token, firstDot, buffers)) {
+            return null;
+        }
+        int length = decode(token, firstDot + 1, secondDot, buffers);
+        Object[] values = new Object[CLAIM_NAMES.length];
+        if (length < 0 || !new JsonMembers(buffers.decoded, length).read(CLAIM_NAMES, values)) {
+            return null;
+        }
+        return toClaims(values, nowMillis);
+    }
+
+    private boolean signatureMatches(String token, int signedLength, Scratch buffers) {
+        byte[] signed = buffers.signed(signedLength);
+        for (int i = 0; i < signedLength; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return false;
+            }
+            signed[i] = (byte) c;
+        }
+        byte[] digest = buffers.digest;
+        try {
+            buffers.mac.update(signed, 0, signedLength);
+            buffers.mac.doFinal(digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Encode the expected signature on the fly and compare without early exit
+        int diff = 0;
+        int pos = signedLength + 1;
+        for (int i = 0; i < 30; i += 3) {
+            int bits = (digest[i] & 0xff) << 16 | (digest[i + 1] & 0xff) << 8
+                    | digest[i + 2] & 0xff;
+            diff |= token.charAt(pos++) ^ ALPHABET[bits >>> 18 & 63];
+            diff |= token.charAt(pos++) ^ ALPHABET[bits >>> 12 & 63];
+            diff |= token.charAt(pos++) ^ ALPHABET[bits >>> 6 & 63];
+            diff |= token.charAt(pos++) ^ ALPHABET[bits & 63];
+        }
+        int bits = (digest[30] & 0xff) << 8 | digest[31] & 0xff;
+        diff |= token.charAt(pos++) ^ ALPHABET[bits >>> 10 & 63];
+        diff |= token.charAt(pos++) ^ ALPHABET[bits >>> 4 & 63];
+        diff |= token.charAt(pos) ^ ALPHABET[bits << 2 & 63];
+        return diff == 0;
+    }
+
+    // Only plain HS256 headers: no compression, no critical extensions
+    private static boolean headerAccepted(String token, int headerLength, Scratch buffers) {
+        if (headerLength == DEFAULT_HEADER.length() && token.startsWith(DEFAULT_HEADER)) {
+            return true;
+        }
+        int length = decode(token, 0, headerLength, buffers);
+        Object[] values = new Object[HEADER_NAMES.length];
+        return length >= 0
+                && new JsonMembers(buffers.decoded, length).read(HEADER_NAMES, values)
+                && "HS256".equals(values[0]) && values[1] == null && values[2] == null;
+    }
+
+    private static Claims toClaims(Object[] values, long nowMillis) {
+        if (!(values[2] instanceof Long exp) || exp * 1000 <= nowMillis) {
+            return null;
+        }
+        Claims claims = Jwts.claims();
+        claims.setExpiration(new Date(exp * 1000));
+        if (values[0] instanceof String subject) {
+            claims.setSubject(subject);
+        }
+        if (values[1] instanceof String role) {
+            claims.put("role", role);
+        }
+        if (values[3] instanceof String userId) {
+            claims.put(JwtUtil.USER_ID_CLAIM, userId);
+        }
+        if (values[4] instanceof Long version) {
+            claims.put(JwtUtil.TOKEN_VERSION_CLAIM, version.intValue());
+        }
+        return claims;
+    }
+
+    // Unpadded Base64URL decode into the scratch buffer; returns the length or -1 if invalid
+    private static int decode(String token, int start, int end, Scratch buffers) {
+        int chars = end - start;
+        if (chars % 4 == 1) {
+            return -1;
+        }
+        byte[] out = buffers.decoded(chars * 3 / 4);
+        int bits = 0;
+        int bitCount = 0;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = token.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6 | value) & 0xffff;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[length++] = (byte) (bits >>> bitCount);
+            }
+        }
+        return length;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static byte[][] names(String... names) {
+        byte[][] bytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            bytes[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+
+    // Per-thread MAC and buffers, grown to the largest token seen
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] digest = new byte[32];
+        byte[] signed = new byte[512];
+        byte[] decoded = new byte[512];
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+        }
+
+        byte[] signed(int length) {
+            if (signed.length < length) {
+                signed = new byte[length];
+            }
+            return signed;
+        }
+
+        byte[] decoded(int length) {
+            if (decoded.length < length) {
+                decoded = new byte[length];
+            }
+            return decoded;
+        }
+    }
+}
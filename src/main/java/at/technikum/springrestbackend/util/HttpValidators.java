@@ -0,0 +1,35 @@
+package at.technikum.springrestbackend.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Builds HTTP cache validators (strong ETag, Last-Modified) from cheap version information
+ * such as an updatedAt timestamp, so conditional GETs can be answered without the body.
+ */
+public final class HttpValidators {
+
+    private HttpValidators() {
+    }
+
+    // Strong ETag derived from the given version parts
+    public static String eTag(Object... parts) {
+        String joined = Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Epoch millis for the Last-Modified header, -1 when unknown
+    public static long lastModified(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return -1;
+        }
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
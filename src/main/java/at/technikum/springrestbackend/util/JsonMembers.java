@@ -0,0 +1,236 @@
+package at.technikum.springrestbackend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal reader for the top-level members of a flat JSON object, used by
+ * {@link Hs256JwtVerifier}. Only the requested members are materialised (strings as
+ * {@link String}, integral numbers as {@link Long}); everything else is skipped in place.
+ */
+final class JsonMembers {
+
+    // Stands in for values of requested members that are neither strings nor integers
+    static final Object OTHER = new Object();
+
+    private final byte[] json;
+    private final int length;
+    private int pos;
+
+    JsonMembers(byte[] json, int length) {
+        this.json = json;
+        this.length = length;
+    }
+
+    // Fills values[i] for each member named names[i]; false when the JSON is malformed
+    boolean read(byte[][] names, Object[] values) {
+        if (next() != '{') {
+            return false;
+        }
+        int token = next();
+        if (token == '}') {
+            return atEnd();
+        }
+        while (token == '"') {
+            int keyStart = pos;
+            if (!skipString()) {
+                return false;
+            }
+            int index = indexOf(names, keyStart, pos - 1);
+            if (next() != ':') {
+                return false;
+            }
+            Object value = index >= 0 ? readValue() : skipValue() ? OTHER : null;
+            if (value == null) {
+                return false;
+            }
+            if (index >= 0) {
+                values[index] = value;
+            }
+            token = next();
+            if (token == '}') {
+                return atEnd();
+            }
+            if (token != ',') {
+                return false;
+            }
+            token = next();
+        }
+        return false;
+    }
+
+    private Object readValue() {
+        int token = peek();
+        if (token == '"') {
+            pos++;
+            return readString();
+        }
+        if (token == '-' || token >= '0' && token <= '9') {
+            return readNumber();
+        }
+        return skipValue() ? OTHER : null;
+    }
+
+    private String readString() {
+        int start = pos;
+        while (pos < length && json[pos] != '"' && json[pos] != '\\') {
+            pos++;
+        }
+        if (pos < length && json[pos] == '"') {
+            return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+        }
+        // Rare: escapes present, fall back to decoding character by character
+        pos = start;
+        StringBuilder value = new StringBuilder();
+        while (pos < length) {
+            byte b = json[pos++];
+            if (b == '"') {
+                return value.toString();
+            }
+            if (b != '\\') {
+                int end = pos;
+                while (end < length && json[end] != '"' && json[end] != '\\') {
+                    end++;
+                }
+                value.append(new String(json, pos - 1, end - pos + 1, StandardCharsets.UTF_8));
+                pos = end;
+            } else if (!appendEscape(value)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean appendEscape(StringBuilder value) {
+        if (pos >= length) {
+            return false;
+        }
+        byte escaped = json[pos++];
+        switch (escaped) {
+            case '"', '\\', '/' -> value.append((char) escaped);
+            case 'b' -> value.append('\b');
+            case 'f' -> value.append('\f');
+            case 'n' -> value.append('\n');
+            case 'r' -> value.append('\r');
+            case 't' -> value.append('\t');
+            case 'u' -> {
+                if (pos + 4 > length) {
+                    return false;
+                }
+                try {
+                    String hex = new String(json, pos, 4, StandardCharsets.US_ASCII);
+                    value.append((char) Integer.parseInt(hex, 16));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                pos += 4;
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        if (json[pos] == '-') {
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < length && json[pos] >= '0' && json[pos] <= '9') {
+            if (++digits > 18) {
+                return null;
+            }
+            value = value * 10 + (json[pos++] - '0');
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (pos < length && (json[pos] == '.' || json[pos] == 'e' || json[pos] == 'E')) {
+            pos = start;
+            return skipValue() ? OTHER : null;
+        }
+        return json[start] == '-' ? -value : value;
+    }
+
+    // Skips any JSON value, including nested objects and arrays
+    private boolean skipValue() {
+        int token = peek();
+        if (token == '"') {
+            pos++;
+            return skipString();
+        }
+        if (token == '{' || token == '[') {
+            return skipNested();
+        }
+        int start = pos;
+        while (pos < length && ",}] \t\r\n".indexOf(json[pos]) < 0) {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private boolean skipNested() {
+        int depth = 0;
+        while (pos < length) {
+            byte b = json[pos++];
+            if (b == '"') {
+                if (!skipString()) {
+                    return false;
+                }
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves past the closing quote of a string whose opening quote was already consumed
+    private boolean skipString() {
+        while (pos < length) {
+            byte b = json[pos++];
+            if (b == '\\') {
+                pos++;
+            } else if (b == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOf(byte[][] names, int start, int end) {
+        for (int i = 0; i < names.length; i++) {
+            if (Arrays.equals(names[i], 0, names[i].length, json, start, end)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int next() {
+        int token = peek();
+        if (token >= 0) {
+            pos++;
+        }
+        return token;
+    }
+
+    private int peek() {
+        while (pos < length && isWhitespace(json[pos])) {
+            pos++;
+        }
+        return pos < length ? json[pos] : -1;
+    }
+
+    private boolean atEnd() {
+        return peek() < 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -2,21 +2,35 @@ package at.technikum.springrestbackend.util;
 
 import at.technikum.springrestbackend.property.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final JwtProperties jwtProperties;
     private SecretKey secretKey;
+    private JwtParser parser;
+    private Hs256JwtVerifier hs256Verifier;
+    private Duration accessTokenTtl;
 
     public JwtUtil(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
@@ -26,16 +40,40 @@ public class JwtUtil {
     public void init() {
         // Initialize the secret key from JwtProperties
         this.secretKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        // Parsers are immutable and thread-safe, so one instance serves all requests
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        if (jwtProperties.getVerifier() == JwtProperties.Verifier.HS256) {
+            this.hs256Verifier = new Hs256JwtVerifier(secretKey.getEncoded());
+        }
+        // Short-lived access tokens; clients renew them through /auth/refresh
+        this.accessTokenTtl = jwtProperties.getAccessTokenTtl();
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
     public String generateToken(String username, String role) {
+        return tokenBuilder(username, role).compact();
+    }
+
+    // Token carrying everything needed to authenticate statelessly (user id and token version)
+    public String generateToken(UUID userId, String email, String role, int tokenVersion) {
+        return tokenBuilder(email, role)
+                .claim(USER_ID_CLAIM, userId.toString())
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
+                .compact();
+    }
+
+    private JwtBuilder tokenBuilder(String username, String role) {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("role", "ROLE_" + role) // Add custom claims
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 1 hour expiration
-                .signWith(secretKey, SignatureAlgorithm.HS256) // Use the key and specify algorithm
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .signWith(secretKey, SignatureAlgorithm.HS256); // Use the key and specify algorithm
     }
 
     public String extractUsername(String token) {
@@ -47,23 +85,25 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
+    // Verify signature and expiry in a single parse; returns the claims, or null if invalid
+    public Claims verify(String token) {
+        if (hs256Verifier != null) {
+            return hs256Verifier.verify(token);
+        }
         try {
-            getClaims(token);
-            return true;
+            return getClaims(token);
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
-            System.out.println("Token expired: " + e.getMessage());
-        } catch (io.jsonwebtoken.JwtException e) {
-            System.out.println("Invalid token: " + e.getMessage());
+            log.debug("Token expired: {}", e.getMessage());
+        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
+            log.debug("Invalid token: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
-
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 }
@@ -0,0 +1,77 @@
+package at.technikum.springrestbackend.util;
+
+import at.technikum.springrestbackend.entity.Product;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Position in a keyset-paginated product listing: the sort column, its direction and the
+ * (sort key, id) pair of the last row that was returned. Encoded as an opaque Base64URL string.
+ */
+public record ProductCursor(String property, Sort.Direction direction, UUID id, String key) {
+
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "price", "createdAt");
+
+    private static final String SEPARATOR = "|";
+
+    // Cursor pointing before the first row for the given sort
+    public static ProductCursor first(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+        }
+        return new ProductCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 4);
+            if (parts.length != 4 || !SORTABLE_PROPERTIES.contains(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ProductCursor position = new ProductCursor(parts[0],
+                    Sort.Direction.fromString(parts[1]), UUID.fromString(parts[2]), parts[3]);
+            position.typedKey();
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor pointing right after the given product
+    public ProductCursor after(Product product) {
+        String nextKey = switch (property) {
+            case "name" -> product.getName();
+            case "price" -> String.valueOf(product.getPrice());
+            case "createdAt" -> String.valueOf(product.getCreatedAt());
+            default -> "";
+        };
+        return new ProductCursor(property, direction, product.getId(), nextKey);
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    // Sort key converted back to the type of the sorted column
+    public Comparable<?> typedKey() {
+        return switch (property) {
+            case "price" -> Double.valueOf(key);
+            case "createdAt" -> LocalDateTime.parse(key);
+            default -> key;
+        };
+    }
+}
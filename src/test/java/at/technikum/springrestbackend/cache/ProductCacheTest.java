@@ -0,0 +1,87 @@
+package at.technikum.springrestbackend.cache;
+
+import at.technikum.springrestbackend.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+    private static final Product TEST_PRODUCT = new Product(
+            "Test Product", 99.99, "Test Description", "Test Category", 10, null, null, null);
+
+    private ProductCache productCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    private Optional<Product> load(UUID id) {
+        loads.incrementAndGet();
+        return PRODUCT_ID.equals(id) ? Optional.of(TEST_PRODUCT) : Optional.empty();
+    }
+
+    @Test
+    void get_loadsOnceAndThenHits() {
+        // Act
+        productCache.get(PRODUCT_ID, this::load);
+        Optional<Product> product = productCache.get(PRODUCT_ID, this::load);
+
+        // Assert
+        assertThat(product).contains(TEST_PRODUCT);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_missesAreNotCached() {
+        // Arrange
+        UUID unknownId = UUID.randomUUID();
+
+        // Act
+        productCache.get(unknownId, this::load);
+        Optional<Product> product = productCache.get(unknownId, this::load);
+
+        // Assert
+        assertThat(product).isEmpty();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evict_forcesReload() {
+        // Act
+        productCache.get(PRODUCT_ID, this::load);
+        productCache.evict(PRODUCT_ID);
+        productCache.get(PRODUCT_ID, this::load);
+
+        // Assert
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void bindTo_publishesHitAndMissCounters() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productCache.bindTo(registry);
+
+        // Act
+        productCache.get(PRODUCT_ID, this::load);
+        productCache.get(PRODUCT_ID, this::load);
+
+        // Assert
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,50 @@
+package at.technikum.springrestbackend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BCryptCostCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void chooseCost_fastHost_raisesCostUntilTarget() {
+        // 20ms at cost 10 -> 40, 80, 160ms fit a 250ms target, 320ms does not
+        assertThat(BCryptCostCalibrator.chooseCost(20 * MILLIS, 250 * MILLIS, 10, 14)).isEqualTo(13);
+    }
+
+    @Test
+    void chooseCost_slowHost_staysAtMinimum() {
+        assertThat(BCryptCostCalibrator.chooseCost(400 * MILLIS, 250 * MILLIS, 10, 14)).isEqualTo(10);
+    }
+
+    @Test
+    void chooseCost_veryFastHost_isCappedAtMaximum() {
+        assertThat(BCryptCostCalibrator.chooseCost(1 * MILLIS, 250 * MILLIS, 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    void constructor_fixedCost_skipsCalibration() {
+        // Act
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(Duration.ofMillis(250), 10, 14, 11);
+
+        // Assert
+        assertThat(calibrator.getCost()).isEqualTo(11);
+    }
+
+    @Test
+    void constructor_costOutsideBcryptRange_isRejected() {
+        // Act & Assert
+        assertThatThrownBy(() -> new BCryptCostCalibrator(Duration.ofMillis(250), 10, 14, 32))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("security.password-hashing.cost");
+        assertThatThrownBy(() -> new BCryptCostCalibrator(Duration.ofMillis(250), 10, 14, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BCryptCostCalibrator(Duration.ofMillis(250), 10, 14, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
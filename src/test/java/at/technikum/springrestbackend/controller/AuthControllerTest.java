@@ -1,22 +1,26 @@
 package at.technikum.springrestbackend.controller;
 
+import at.technikum.springrestbackend.dto.AuthTokens;
 import at.technikum.springrestbackend.entity.User;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
+import at.technikum.springrestbackend.service.PasswordHashingService;
+import at.technikum.springrestbackend.service.RefreshTokenService;
 import at.technikum.springrestbackend.service.UserService;
-import at.technikum.springrestbackend.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,12 +33,11 @@ class AuthControllerTest {
     private UserService userService;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private RefreshTokenService refreshTokenService;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    @InjectMocks
     private AuthController authController;
 
     private static final UUID USER_ID = UUID.randomUUID();
@@ -43,6 +46,7 @@ class AuthControllerTest {
     private static final String PASSWORD = "$2a$10$D9qZ.1s6xUuSDlzB/LBMEOLiYd7YwPAW5PTLNBH.oZWnW.YXO/lfy"; // BCrypt hash for "rawPassword"
     private static final String RAW_PASSWORD = "rawPassword";
     private static final String TOKEN = "jwt-token";
+    private static final String REFRESH_TOKEN = "refresh-token";
 
     private static final User TEST_USER = new User(
             "USA",
@@ -58,24 +62,29 @@ class AuthControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Runs the token issuing on the calling thread
+        authController = new AuthController(userService, passwordHashingService,
+                refreshTokenService, Runnable::run);
         // Mock user lookup
-        lenient().when(userService.findByEmail(EMAIL)).thenReturn(Optional.of(TEST_USER));
-        lenient().when(userService.findByUsername(USERNAME)).thenReturn(Optional.of(TEST_USER));
+        lenient().when(userService.findByEmailOrUsername(EMAIL)).thenReturn(Optional.of(TEST_USER));
+        lenient().when(userService.findByEmailOrUsername(USERNAME)).thenReturn(Optional.of(TEST_USER));
 
-        // Mock JWT token generation
-        lenient().when(jwtUtil.generateToken(EMAIL, "USER")).thenReturn(TOKEN);
+        // Mock token issuing
+        lenient().when(refreshTokenService.issueTokens(any(User.class)))
+                .thenReturn(new AuthTokens(TOKEN, REFRESH_TOKEN, 900));
 
         // Mock password comparison
-        lenient().when(passwordEncoder.matches(eq(RAW_PASSWORD), eq(PASSWORD))).thenReturn(true);
+        lenient().when(passwordHashingService.matches(eq(RAW_PASSWORD), eq(PASSWORD)))
+                .thenReturn(CompletableFuture.completedFuture(true));
     }
 
     @Test
     void register_createsNewUser() {
         // Arrange
-        doNothing().when(userService).registerUser(any(User.class));
+        when(userService.registerUser(any(User.class))).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
-        ResponseEntity<?> response = authController.register(TEST_USER);
+        ResponseEntity<?> response = authController.register(TEST_USER).join();
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK); // Use getStatusCode() here
@@ -83,18 +92,97 @@ class AuthControllerTest {
         verify(userService, times(1)).registerUser(TEST_USER);
     }
 
+    @Test
+    void login_withOutdatedHashCost_returnsTokenAndUpgradesHash() {
+        // Arrange
+        User user = new User("USA", EMAIL, PASSWORD, User.Role.USER, "Test Salutation",
+                "Detailed Salutation", USERNAME, "/pictures/profile.jpg", true);
+        user.setId(USER_ID);
+        when(userService.findByEmailOrUsername(EMAIL)).thenReturn(Optional.of(user));
+        when(passwordHashingService.needsRehash(PASSWORD)).thenReturn(true);
+        when(passwordHashingService.encode(RAW_PASSWORD))
+                .thenReturn(CompletableFuture.completedFuture("upgradedHash"));
+
+        // Act
+        ResponseEntity<?> response =
+                authController.login(Map.of("usernameOrEmail", EMAIL, "password", RAW_PASSWORD)).join();
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body)
+                .containsEntry("token", TOKEN)
+                .containsEntry("refreshToken", REFRESH_TOKEN);
+        verify(userService, times(1)).updatePasswordHash(USER_ID, "upgradedHash");
+    }
+
+    @Test
+    void login_issuesTokensOnDatabaseExecutor() {
+        // Arrange
+        User user = new User("USA", EMAIL, PASSWORD, User.Role.USER, "Test Salutation",
+                "Detailed Salutation", USERNAME, "/pictures/profile.jpg", true);
+        user.setId(USER_ID);
+        when(userService.findByEmailOrUsername(EMAIL)).thenReturn(Optional.of(user));
+        List<Runnable> submitted = new ArrayList<>();
+        authController = new AuthController(userService, passwordHashingService,
+                refreshTokenService, submitted::add);
+
+        // Act
+        CompletableFuture<ResponseEntity<?>> response =
+                authController.login(Map.of("usernameOrEmail", EMAIL, "password", RAW_PASSWORD));
+
+        // Assert
+        verify(refreshTokenService, never()).issueTokens(any());
+        assertThat(submitted).hasSize(1);
+        submitted.get(0).run();
+        assertThat(response.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(refreshTokenService, times(1)).issueTokens(user);
+    }
+
+    @Test
+    void login_withWrongPassword_completesWithResourceNotFoundException() {
+        // Arrange
+        when(passwordHashingService.matches("wrongPassword", PASSWORD))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        // Act
+        CompletableFuture<ResponseEntity<?>> response =
+                authController.login(Map.of("usernameOrEmail", EMAIL, "password", "wrongPassword"));
+
+        // Assert
+        assertThatThrownBy(response::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        verify(refreshTokenService, never()).issueTokens(any());
+    }
+
+    @Test
+    void refresh_returnsNewTokenPair() {
+        // Arrange
+        when(refreshTokenService.refresh("old-refresh-token"))
+                .thenReturn(new AuthTokens(TOKEN, REFRESH_TOKEN, 900));
+
+        // Act
+        ResponseEntity<?> response = authController.refresh(Map.of("refreshToken", "old-refresh-token"));
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .isEqualTo(Map.of("token", TOKEN, "refreshToken", REFRESH_TOKEN, "expiresIn", 900L));
+        verifyNoInteractions(passwordHashingService);
+    }
+
     @Test
     void login_withInvalidCredentials_throwsResourceNotFoundException() {
         // Arrange
-        when(userService.findByEmail("wrong@example.com")).thenReturn(Optional.empty());
-        when(userService.findByUsername("wrong@example.com")).thenReturn(Optional.empty());
+        when(userService.findByEmailOrUsername("wrong@example.com")).thenReturn(Optional.empty());
 
         // Assert
         assertThatThrownBy(() -> authController.login(Map.of("usernameOrEmail", "wrong@example.com", "password", "wrongPassword")))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Invalid credentials");
 
-        verify(userService, times(1)).findByEmail("wrong@example.com");
-        verify(userService, times(1)).findByUsername("wrong@example.com");
+        verify(userService, times(1)).findByEmailOrUsername("wrong@example.com");
     }
 }
@@ -2,9 +2,10 @@ package at.technikum.springrestbackend.controller;
 
 import at.technikum.springrestbackend.entity.Product;
 import at.technikum.springrestbackend.entity.User;
-import at.technikum.springrestbackend.repository.ProductRepository;
 import at.technikum.springrestbackend.repository.UserRepository;
 import at.technikum.springrestbackend.service.FileService;
+import at.technikum.springrestbackend.service.ImageVariantService;
+import at.technikum.springrestbackend.service.ProductService;
 import at.technikum.springrestbackend.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,8 +15,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,7 +35,7 @@ class FileControllerTest {
     private FileService fileService;
 
     @Mock
-    private ProductRepository productRepository;
+    private ProductService productService;
 
     @Mock
     private UserRepository userRepository;
@@ -38,6 +43,9 @@ class FileControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ImageVariantService imageVariantService;
+
     @InjectMocks
     private FileController fileController;
 
@@ -73,18 +81,20 @@ class FileControllerTest {
 
     @BeforeEach
     void setUp() {
-        lenient().when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(TEST_PRODUCT));
+        lenient().when(productService.findProduct(PRODUCT_ID)).thenReturn(Optional.of(TEST_PRODUCT));
         lenient().when(userRepository.findById(USER_ID)).thenReturn(Optional.of(TEST_USER));
         lenient().when(fileService.getPresignedUrl(anyString())).thenReturn(PRESIGNED_URL);
         lenient().when(userService.getAuthenticatedUserId()).thenReturn(AUTHENTICATED_USER_ID);
         lenient().when(userService.isAdmin()).thenReturn(false);
+        lenient().when(imageVariantService.resolve(anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     // Tests for Product Image
     @Test
     void getProductImage_returnsPresignedUrl() {
         // Act
-        ResponseEntity<?> response = fileController.getProductImage(PRODUCT_ID);
+        ResponseEntity<?> response = fileController.getProductImage(PRODUCT_ID, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -92,19 +102,48 @@ class FileControllerTest {
         verify(fileService, times(1)).getPresignedUrl("product-image.jpg");
     }
 
+    @Test
+    void getProductImage_withWidthHint_presignsResolvedVariant() {
+        // Arrange
+        String variantKey = "variants/320w/product-image.jpg.jpg";
+        when(imageVariantService.resolve("product-image.jpg", 300)).thenReturn(variantKey);
+
+        // Act
+        ResponseEntity<?> response = fileController.getProductImage(PRODUCT_ID, 300);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(fileService, times(1)).getPresignedUrl(variantKey);
+    }
+
     @Test
     void getProductImage_productNotFound_returnsNotFound() {
         // Arrange
-        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.empty());
+        when(productService.findProduct(PRODUCT_ID)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<?> response = fileController.getProductImage(PRODUCT_ID);
+        ResponseEntity<?> response = fileController.getProductImage(PRODUCT_ID, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         verify(fileService, never()).getPresignedUrl(anyString());
     }
 
+    @Test
+    void getProductImages_returnsUrlsForAllIds() {
+        // Arrange
+        List<UUID> ids = List.of(PRODUCT_ID, UUID.randomUUID());
+        when(productService.getImageUrls(ids, 320)).thenReturn(Map.of(PRODUCT_ID, PRESIGNED_URL));
+
+        // Act
+        ResponseEntity<Map<UUID, String>> response = fileController.getProductImages(ids, 320);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(Map.entry(PRODUCT_ID, PRESIGNED_URL));
+        verify(productService, never()).findProduct(any());
+    }
+
     @Test
     void uploadProductImage_uploadsAndUpdatesProduct() {
         // Arrange
@@ -121,14 +160,14 @@ class FileControllerTest {
                 "imageUrl", IMAGE_URL
         ));
         verify(fileService, times(1)).uploadFile(mockFile);
-        verify(productRepository, times(1)).save(TEST_PRODUCT);
+        verify(productService, times(1)).updateImageUrl(PRODUCT_ID, IMAGE_URL);
     }
 
     @Test
     void uploadProductImage_productNotFound_returnsNotFound() {
         // Arrange
         MultipartFile mockFile = mock(MultipartFile.class);
-        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.empty());
+        when(productService.findProduct(PRODUCT_ID)).thenReturn(Optional.empty());
 
         // Act
         ResponseEntity<?> response = fileController.uploadProductImage(PRODUCT_ID, mockFile);
@@ -161,7 +200,7 @@ class FileControllerTest {
         when(userService.getAuthenticatedUserId()).thenReturn(UUID.randomUUID()); // Simulate a different user
 
         // Act
-        ResponseEntity<?> response = fileController.getUserProfilePicture(USER_ID);
+        ResponseEntity<?> response = fileController.getUserProfilePicture(USER_ID, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
@@ -198,4 +237,39 @@ class FileControllerTest {
         assertThat(response.getBody()).isEqualTo(Map.of("error", "You are not authorized to view information about this user"));
         verify(fileService, never()).uploadFile(mockFile);
     }
+
+    @Test
+    void streamProductImage_streamsBodyAndUpdatesProduct() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/files/products/x/image");
+        request.setContentType("image/png");
+        request.setContent(new byte[]{1, 2, 3});
+        when(fileService.uploadStream(any(InputStream.class), eq("image/png"), eq("photo.png")))
+                .thenReturn(IMAGE_URL);
+
+        // Act
+        ResponseEntity<?> response = fileController.streamProductImage(PRODUCT_ID, request, "photo.png");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(Map.of(
+                "message", "Image uploaded successfully",
+                "imageUrl", IMAGE_URL
+        ));
+        verify(productService, times(1)).updateImageUrl(PRODUCT_ID, IMAGE_URL);
+    }
+
+    @Test
+    void streamProfilePicture_unauthorizedAccess_returnsForbidden() throws IOException {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/files/users/x/profile-picture");
+        request.setContentType("image/png");
+
+        // Act
+        ResponseEntity<?> response = fileController.streamProfilePicture(USER_ID, request, "photo.png");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verify(fileService, never()).uploadStream(any(), any(), any());
+    }
 }
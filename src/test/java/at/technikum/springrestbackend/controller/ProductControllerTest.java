@@ -1,7 +1,16 @@
 package at.technikum.springrestbackend.controller;
 
+import at.technikum.springrestbackend.dto.BulkDeleteDto;
+import at.technikum.springrestbackend.dto.BulkRepriceDto;
+import at.technikum.springrestbackend.dto.BulkStockDto;
+import at.technikum.springrestbackend.dto.CatalogVersion;
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.dto.CursorPage;
 import at.technikum.springrestbackend.dto.ProductDto;
+import at.technikum.springrestbackend.dto.ProductFilter;
 import at.technikum.springrestbackend.entity.Product;
+import at.technikum.springrestbackend.dto.ImportResult;
+import at.technikum.springrestbackend.service.ProductImportService;
 import at.technikum.springrestbackend.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +24,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,9 +43,15 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
     @Mock
     private HttpServletRequest httpServletRequest;
 
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private ProductController productController;
 
@@ -62,6 +81,8 @@ class ProductControllerTest {
     @BeforeEach
     void setUp() {
         lenient().when(productService.getProduct(PRODUCT_ID)).thenReturn(TEST_PRODUCT);
+        lenient().when(productService.getCatalogVersion())
+                .thenReturn(new CatalogVersion(1L, LocalDateTime.of(2024, 1, 1, 12, 0)));
     }
 
     @Test
@@ -70,17 +91,129 @@ class ProductControllerTest {
         when(productService.getAllProducts()).thenReturn(List.of(TEST_PRODUCT));
 
         // Act
-        List<Product> products = productController.getProducts(httpServletRequest);
+        ResponseEntity<List<Product>> response = productController.getProducts(httpServletRequest, webRequest);
 
         // Assert
-        assertThat(products).containsExactly(TEST_PRODUCT);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(TEST_PRODUCT);
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void getProducts_notModified_skipsLoadingProducts() {
+        // Arrange
+        when(webRequest.checkNotModified(anyString())).thenReturn(true);
+
+        // Act
+        ResponseEntity<List<Product>> response = productController.getProducts(httpServletRequest, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(productService, never()).getAllProducts();
+        // Deletes do not advance MAX(updatedAt), so the collection carries no Last-Modified
+        verify(webRequest, never()).checkNotModified(anyString(), anyLong());
+    }
+
+    @Test
+    void getProductFields_returnsOnlyRequestedColumns() {
+        // Arrange
+        List<String> fields = List.of("id", "name");
+        List<Map<String, Object>> rows = List.of(Map.of("id", PRODUCT_ID, "name", "Test Product"));
+        when(productService.getAllProductFields(fields)).thenReturn(rows);
+
+        // Act
+        ResponseEntity<List<Map<String, Object>>> response =
+                productController.getProductFields(fields, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(rows);
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductFieldsWithSorting_withImageSrc_skipsConditionalCheck() {
+        // Arrange
+        List<String> fields = List.of("id", "imageSrc");
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Map<String, Object>> rows = new PageImpl<>(
+                List.of(Map.of("id", PRODUCT_ID, "imageSrc", "http://minio/a.jpg")), pageable, 1);
+        when(productService.getProductFieldsWithSorting(fields, pageable, 320)).thenReturn(rows);
+
+        // Act
+        ResponseEntity<Page<Map<String, Object>>> response =
+                productController.getProductFieldsWithSorting(fields, 320, pageable, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(rows);
+        verify(webRequest, never()).checkNotModified(anyString());
+    }
+
+    @Test
+    void getProductFieldsWithSorting_returnsPagedRows() {
+        // Arrange
+        List<String> fields = List.of("id", "price");
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Map<String, Object>> rows =
+                new PageImpl<>(List.of(Map.of("id", PRODUCT_ID, "price", 99.99)), pageable, 1);
+        when(productService.getProductFieldsWithSorting(fields, pageable, null)).thenReturn(rows);
+
+        // Act
+        ResponseEntity<Page<Map<String, Object>>> response =
+                productController.getProductFieldsWithSorting(fields, null, pageable, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(rows);
+    }
+
+    @Test
+    void exportProducts_streamsToResponse() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        productController.exportProducts(response);
+
+        // Assert
+        assertThat(response.getContentType()).startsWith("application/x-ndjson");
+        verify(productService, times(1)).exportProducts(response.getOutputStream());
+    }
+
+    @Test
+    void getCategoryFacets_returnsFacets() {
+        // Arrange
+        List<CategoryFacet> facets = List.of(new CategoryFacet("Test Category", 1L, 1L, 99.99, 99.99));
+        when(productService.getCategoryFacets()).thenReturn(facets);
+
+        // Act
+        ResponseEntity<List<CategoryFacet>> response = productController.getCategoryFacets();
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(facets);
+    }
+
+    @Test
+    void searchProducts_returnsPagedResults() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Product> productPage = new PageImpl<>(List.of(TEST_PRODUCT), pageable, 1);
+        when(productService.searchProducts("test", pageable)).thenReturn(productPage);
+
+        // Act
+        ResponseEntity<Page<Product>> response = productController.searchProducts("test", pageable);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getContent()).containsExactly(TEST_PRODUCT);
+    }
+
     @Test
     void getProduct_returnsProduct() {
         // Act
-        ResponseEntity<Product> response = productController.getProduct(PRODUCT_ID);
+        ResponseEntity<Product> response = productController.getProduct(PRODUCT_ID, webRequest);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -96,7 +229,7 @@ class ProductControllerTest {
         when(productService.getProductsWithSorting(pageable)).thenReturn(productPage);
 
         // Act
-        ResponseEntity<Page<Product>> response = productController.getProductsWithSorting(pageable);
+        ResponseEntity<Page<Product>> response = productController.getProductsWithSorting(pageable, webRequest);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -104,6 +237,51 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductsWithSorting(pageable);
     }
 
+    @Test
+    void getProductsWithSorting_notModified_skipsLoadingPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        when(webRequest.checkNotModified(anyString())).thenReturn(true);
+
+        // Act
+        ResponseEntity<Page<Product>> response = productController.getProductsWithSorting(pageable, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(productService, never()).getProductsWithSorting(any());
+    }
+
+    @Test
+    void filterProducts_delegatesToService() {
+        // Arrange
+        ProductFilter filter = new ProductFilter("Test Category", null, null, true, null, null);
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Product> productPage = new PageImpl<>(List.of(TEST_PRODUCT), pageable, 1);
+        when(productService.filterProducts(filter, pageable)).thenReturn(productPage);
+
+        // Act
+        ResponseEntity<Page<Product>> response = productController.filterProducts(filter, pageable);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getContent()).containsExactly(TEST_PRODUCT);
+    }
+
+    @Test
+    void getProductsAfterCursor_returnsCursorPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        CursorPage<Product> cursorPage = new CursorPage<>(List.of(TEST_PRODUCT), "next", 1);
+        when(productService.getProductsAfterCursor("", pageable.getSort(), 10)).thenReturn(cursorPage);
+
+        // Act
+        ResponseEntity<CursorPage<Product>> response = productController.getProductsAfterCursor("", pageable);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(cursorPage);
+    }
+
     @Test
     void addProduct_createsProduct() {
         // Arrange
@@ -118,6 +296,63 @@ class ProductControllerTest {
         verify(productService, times(1)).addProduct(TEST_PRODUCT_DTO);
     }
 
+    @Test
+    void importProducts_detectsCsvAndGzip() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("text/csv");
+        request.addHeader("Content-Encoding", "gzip");
+        ImportResult result = new ImportResult(1, 0, 5, 200.0, List.of());
+        when(productImportService.importProducts(any(), eq(true), eq(true))).thenReturn(result);
+
+        // Act
+        ResponseEntity<ImportResult> response = productController.importProducts(request);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(result);
+    }
+
+    @Test
+    void repriceCategory_returnsAffectedRows() {
+        // Arrange
+        when(productService.repriceCategory("Test Category", -10.0)).thenReturn(3);
+
+        // Act
+        ResponseEntity<Map<String, Integer>> response =
+                productController.repriceCategory(new BulkRepriceDto("Test Category", -10.0));
+
+        // Assert
+        assertThat(response.getBody()).containsEntry("updated", 3);
+    }
+
+    @Test
+    void updateStock_returnsAffectedRows() {
+        // Arrange
+        when(productService.updateStock(List.of(PRODUCT_ID), 0)).thenReturn(1);
+
+        // Act
+        ResponseEntity<Map<String, Integer>> response =
+                productController.updateStock(new BulkStockDto(List.of(PRODUCT_ID), 0));
+
+        // Assert
+        assertThat(response.getBody()).containsEntry("updated", 1);
+    }
+
+    @Test
+    void deleteProducts_byCategory_returnsAffectedRows() {
+        // Arrange
+        when(productService.removeProductsByCategory("Test Category", true)).thenReturn(2);
+
+        // Act
+        ResponseEntity<Map<String, Integer>> response =
+                productController.deleteProducts(new BulkDeleteDto(null, "Test Category", true));
+
+        // Assert
+        assertThat(response.getBody()).containsEntry("deleted", 2);
+        verify(productService, never()).removeProducts(any());
+    }
+
     @Test
     void patchProduct_updatesPartialProduct() {
         // Arrange
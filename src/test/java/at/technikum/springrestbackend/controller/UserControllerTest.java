@@ -11,7 +11,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -25,6 +28,9 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private UserController userController;
 
@@ -79,7 +85,7 @@ class UserControllerTest {
         when(userService.getUser(USER_ID)).thenReturn(TEST_USER);
 
         // Act
-        ResponseEntity<?> response = userController.getUser(USER_ID);
+        ResponseEntity<?> response = userController.getUser(USER_ID, webRequest);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -93,7 +99,7 @@ class UserControllerTest {
         when(userService.isAdmin()).thenReturn(false);
 
         // Act
-        ResponseEntity<?> response = userController.getUser(USER_ID);
+        ResponseEntity<?> response = userController.getUser(USER_ID, webRequest);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
@@ -109,7 +115,7 @@ class UserControllerTest {
         when(userService.getUser(USER_ID)).thenReturn(TEST_USER);
 
         // Act
-        ResponseEntity<?> response = userController.getUser(USER_ID);
+        ResponseEntity<?> response = userController.getUser(USER_ID, webRequest);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -117,6 +123,25 @@ class UserControllerTest {
         verify(userService, times(1)).getUser(USER_ID);
     }
 
+    @Test
+    void getUser_notModified_returnsNotModifiedWithoutBody() {
+        // Arrange
+        User user = new User("USA", "testuser@example.com", "testPassword", User.Role.USER,
+                "User", null, "testuser", "/pictures/profile.jpg", true);
+        ReflectionTestUtils.setField(user, "updatedAt", LocalDateTime.now());
+        when(userService.isAdmin()).thenReturn(true);
+        when(userService.getUser(USER_ID)).thenReturn(user);
+        when(webRequest.checkNotModified(anyString(), anyLong())).thenReturn(true);
+
+        // Act
+        ResponseEntity<?> response = userController.getUser(USER_ID, webRequest);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        verify(userService, times(1)).getUser(USER_ID);
+    }
+
     @Test
     void updateUser_updatesUserForAdmin() {
         // Arrange
@@ -56,6 +56,33 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsEntry(fieldName, errorMessage);
     }
 
+    @Test
+    void handleIllegalArgument_returnsBadRequestResponse() {
+        // Arrange
+        IllegalArgumentException exception = new IllegalArgumentException("Invalid cursor");
+
+        // Act
+        ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleIllegalArgument(exception);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("error", "Invalid cursor");
+    }
+
+    @Test
+    void handleConflict_returnsConflictResponse() {
+        // Arrange
+        ConflictException exception = new ConflictException("A user with this email or username already exists");
+
+        // Act
+        ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleConflict(exception);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody())
+                .containsEntry("error", "A user with this email or username already exists");
+    }
+
     @Test
     void handleAccessDenied_returnsForbiddenResponse() {
         // Arrange
@@ -84,5 +111,18 @@ class GlobalExceptionHandlerTest {
                 .containsEntry("error", "An unexpected error occurred")
                 .containsEntry("details", errorDetails);
     }
-}
 
+    @Test
+    void handleServiceUnavailable_returnsServiceUnavailableWithRetryAfter() {
+        // Arrange
+        ServiceUnavailableException exception = new ServiceUnavailableException("Busy", 2);
+
+        // Act
+        ResponseEntity<Map<String, String>> response = globalExceptionHandler.handleServiceUnavailable(exception);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("2");
+        assertThat(response.getBody()).containsEntry("error", "Busy");
+    }
+}
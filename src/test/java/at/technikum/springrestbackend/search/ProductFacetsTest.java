@@ -0,0 +1,118 @@
+package at.technikum.springrestbackend.search;
+
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetsTest {
+
+    private ProductFacets productFacets;
+
+    @BeforeEach
+    void setUp() {
+        productFacets = new ProductFacets();
+    }
+
+    private static Product product(String category, double price, int stock) {
+        Product product = new Product("Name", price, "Description", category, stock, null, null, null);
+        ReflectionTestUtils.setField(product, "id", UUID.randomUUID());
+        return product;
+    }
+
+    @Test
+    void put_aggregatesPerCategory() {
+        // Arrange
+        productFacets.put(product("Electronics", 100.0, 5));
+        productFacets.put(product("Electronics", 20.0, 0));
+        productFacets.put(product("Books", 10.0, 1));
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(
+                new CategoryFacet("Books", 1L, 1L, 10.0, 10.0),
+                new CategoryFacet("Electronics", 2L, 1L, 20.0, 100.0));
+    }
+
+    @Test
+    void put_existingProduct_movesContribution() {
+        // Arrange
+        Product product = product("Electronics", 100.0, 5);
+        productFacets.put(product);
+
+        // Act
+        product.setCategory("Books");
+        product.setPrice(15.0);
+        productFacets.put(product);
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(new CategoryFacet("Books", 1L, 1L, 15.0, 15.0));
+    }
+
+    @Test
+    void remove_updatesPriceRange() {
+        // Arrange
+        Product expensive = product("Electronics", 100.0, 5);
+        productFacets.put(expensive);
+        productFacets.put(product("Electronics", 20.0, 5));
+
+        // Act
+        productFacets.remove(expensive.getId());
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(new CategoryFacet("Electronics", 1L, 1L, 20.0, 20.0));
+    }
+
+    @Test
+    void scalePriceAndSetStock_updateAggregates() {
+        // Arrange
+        Product product = product("Electronics", 100.0, 5);
+        productFacets.put(product);
+
+        // Act
+        productFacets.scalePrice(product.getId(), 0.5);
+        productFacets.setStock(product.getId(), 0);
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(new CategoryFacet("Electronics", 1L, 0L, 50.0, 50.0));
+    }
+
+    @Test
+    void rebuild_keepsServingOldCountsUntilSwapped() {
+        // Arrange
+        productFacets.put(product("Electronics", 100.0, 5));
+        Product book = product("Books", 10.0, 1);
+
+        // Act
+        productFacets.rebuild(Stream.of(book).peek(product ->
+                assertThat(productFacets.snapshot()).containsExactly(
+                        new CategoryFacet("Electronics", 1L, 1L, 100.0, 100.0))));
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(new CategoryFacet("Books", 1L, 1L, 10.0, 10.0));
+    }
+
+    @Test
+    void rebuild_writeDuringRebuild_isNotUndone() {
+        // Arrange
+        Product deleted = product("Electronics", 100.0, 5);
+        Product kept = product("Books", 10.0, 1);
+        productFacets.put(deleted);
+        productFacets.put(kept);
+
+        // Act: the product is deleted while the rebuild still streams its stale row
+        productFacets.rebuild(Stream.of(kept, deleted).peek(product -> {
+            if (product == kept) {
+                productFacets.remove(deleted.getId());
+            }
+        }));
+
+        // Assert
+        assertThat(productFacets.snapshot()).containsExactly(new CategoryFacet("Books", 1L, 1L, 10.0, 10.0));
+    }
+}
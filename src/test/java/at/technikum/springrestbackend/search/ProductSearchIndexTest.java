@@ -0,0 +1,78 @@
+package at.technikum.springrestbackend.search;
+
+import at.technikum.springrestbackend.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+    }
+
+    private static Product product(String name, String description, String category) {
+        Product product = new Product(name, 10.0, description, category, 1, null, null, null);
+        ReflectionTestUtils.setField(product, "id", UUID.randomUUID());
+        return product;
+    }
+
+    @Test
+    void search_ranksNameMatchesAboveDescriptionMatches() {
+        // Arrange
+        Product laptop = product("Gaming Laptop", "Fast machine", "Electronics");
+        Product bag = product("Bag", "Fits any laptop", "Accessories");
+        productSearchIndex.index(bag);
+        productSearchIndex.index(laptop);
+
+        // Act & Assert
+        assertThat(productSearchIndex.search("LAPTOP")).containsExactly(laptop.getId(), bag.getId());
+    }
+
+    @Test
+    void search_unknownOrBlankQuery_returnsNothing() {
+        // Arrange
+        productSearchIndex.index(product("Phone", "Smartphone", "Electronics"));
+
+        // Act & Assert
+        assertThat(productSearchIndex.search("tablet")).isEmpty();
+        assertThat(productSearchIndex.search("  ")).isEmpty();
+    }
+
+    @Test
+    void index_replacesOldTerms() {
+        // Arrange
+        Product product = product("Phone", "Smartphone", "Electronics");
+        productSearchIndex.index(product);
+
+        // Act
+        product.setName("Tablet");
+        productSearchIndex.index(product);
+
+        // Assert
+        assertThat(productSearchIndex.search("phone")).isEmpty();
+        assertThat(productSearchIndex.search("tablet")).containsExactly(product.getId());
+        assertThat(productSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void remove_dropsProductFromResults() {
+        // Arrange
+        Product product = product("Phone", "Smartphone", "Electronics");
+        productSearchIndex.index(product);
+
+        // Act
+        productSearchIndex.remove(product.getId());
+
+        // Assert
+        assertThat(productSearchIndex.search("phone")).isEmpty();
+        assertThat(productSearchIndex.size()).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package at.technikum.springrestbackend.security.cors;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CorsPreflightFilterTest {
+
+    private CorsPreflightFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of("http://localhost:8081"));
+        configuration.setAllowedMethods(List.of("GET", "POST"));
+        configuration.setAllowedHeaders(List.of("*"));
+        configuration.setAllowCredentials(true);
+        configuration.setMaxAge(Duration.ofHours(1));
+        filter = new CorsPreflightFilter(configuration);
+        filterChain = mock(FilterChain.class);
+    }
+
+    @Test
+    void preflight_allowedOrigin_isAnsweredWithoutChain() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = preflight("http://localhost:8081", "POST");
+        request.addHeader("Access-Control-Request-Headers", "authorization, content-type");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Access-Control-Allow-Origin")).isEqualTo("http://localhost:8081");
+        assertThat(response.getHeader("Access-Control-Allow-Headers")).isEqualTo("authorization, content-type");
+        assertThat(response.getHeader("Access-Control-Allow-Credentials")).isEqualTo("true");
+        assertThat(response.getHeader("Access-Control-Max-Age")).isEqualTo("3600");
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void preflight_unknownOrigin_isRejected() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(preflight("http://evil.example", "GET"), response, filterChain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(response.getHeader("Access-Control-Allow-Origin")).isNull();
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void nonPreflightRequest_passesThrough() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/products");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    private MockHttpServletRequest preflight(String origin, String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/products");
+        request.addHeader("Origin", origin);
+        request.addHeader("Access-Control-Request-Method", method);
+        return request;
+    }
+}
@@ -43,8 +43,8 @@ class CustomUserDetailsServiceTest {
 
     @BeforeEach
     void setUp() {
-        lenient().when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(TEST_USER));
-        lenient().when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(TEST_USER));
+        lenient().when(userRepository.findByEmailOrUsername(EMAIL)).thenReturn(Optional.of(TEST_USER));
+        lenient().when(userRepository.findByEmailOrUsername(USERNAME)).thenReturn(Optional.of(TEST_USER));
     }
 
     @Test
@@ -60,15 +60,11 @@ class CustomUserDetailsServiceTest {
                 .extracting("authority")
                 .containsExactly("ROLE_ADMIN"); // Role converted to ROLE_ADMIN
 
-        verify(userRepository, times(1)).findByEmail(EMAIL);
-        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, times(1)).findByEmailOrUsername(EMAIL);
     }
 
     @Test
     void loadUserByUsername_findsUserByUsername() {
-        // Arrange
-        when(userRepository.findByEmail(USERNAME)).thenReturn(Optional.empty());
-
         // Act
         UserDetails userDetails = customUserDetailsService.loadUserByUsername(USERNAME);
 
@@ -80,23 +76,22 @@ class CustomUserDetailsServiceTest {
                 .extracting("authority")
                 .containsExactly("ROLE_ADMIN");
 
-        verify(userRepository, times(1)).findByEmail(USERNAME);
-        verify(userRepository, times(1)).findByUsername(USERNAME);
+        verify(userRepository, times(1)).findByEmailOrUsername(USERNAME);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).findByUsername(anyString());
     }
 
     @Test
     void loadUserByUsername_userNotFoundThrowsException() {
         // Arrange
-        when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByUsername("unknown@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findByEmailOrUsername("unknown@example.com")).thenReturn(Optional.empty());
 
         // Assert
         assertThatThrownBy(() -> customUserDetailsService.loadUserByUsername("unknown@example.com"))
                 .isInstanceOf(UsernameNotFoundException.class)
                 .hasMessage("User not found with email or username: unknown@example.com");
 
-        verify(userRepository, times(1)).findByEmail("unknown@example.com");
-        verify(userRepository, times(1)).findByUsername("unknown@example.com");
+        verify(userRepository, times(1)).findByEmailOrUsername("unknown@example.com");
     }
 }
 
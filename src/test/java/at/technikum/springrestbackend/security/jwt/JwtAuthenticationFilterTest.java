@@ -10,6 +10,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,8 +19,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class JwtAuthenticationFilterTest {
@@ -41,15 +46,49 @@ class JwtAuthenticationFilterTest {
     @Mock
     private Claims claims;
 
+    @Mock
+    private TokenRevocations tokenRevocations;
+
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService,
+                new VerifiedTokenCache(100, Duration.ofHours(1)), tokenRevocations);
         SecurityContextHolder.clearContext(); // Clear the security context before each test
     }
 
+    @Test
+    void doFilter_publicRoute_skipsTokenProcessing() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest loginRequest = new MockHttpServletRequest("POST", "/auth/login");
+        loginRequest.setServletPath("/auth/login");
+        loginRequest.addHeader("Authorization", "Bearer some.jwt.token");
+
+        // Act
+        jwtAuthenticationFilter.doFilter(loginRequest, new MockHttpServletResponse(), filterChain);
+
+        // Assert
+        verifyNoInteractions(jwtUtil, userDetailsService, tokenRevocations);
+        verify(filterChain, times(1)).doFilter(eq(loginRequest), any());
+    }
+
+    @Test
+    void doFilter_optionsRequest_skipsTokenProcessing() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest optionsRequest = new MockHttpServletRequest("OPTIONS", "/products");
+        optionsRequest.setServletPath("/products");
+        optionsRequest.addHeader("Authorization", "Bearer some.jwt.token");
+
+        // Act
+        jwtAuthenticationFilter.doFilter(optionsRequest, new MockHttpServletResponse(), filterChain);
+
+        // Assert
+        verifyNoInteractions(jwtUtil);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
     @Test
     void doFilterInternal_validToken_setsAuthentication() throws ServletException, IOException {
         // Arrange
@@ -58,8 +97,7 @@ class JwtAuthenticationFilterTest {
         String role = "ROLE_USER";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.validateToken(token)).thenReturn(true);
-        when(jwtUtil.getClaims(token)).thenReturn(claims);
+        when(jwtUtil.verify(token)).thenReturn(claims);
         when(claims.getSubject()).thenReturn(username);
         when(claims.get("role", String.class)).thenReturn(role);
 
@@ -81,13 +119,80 @@ class JwtAuthenticationFilterTest {
     }
 
 
+    @Test
+    void doFilterInternal_tokenWithUserId_authenticatesWithoutUserLookup() throws ServletException, IOException {
+        // Arrange
+        String token = "stateless.jwt.token";
+        UUID userId = UUID.randomUUID();
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser@example.com");
+        when(claims.get("role", String.class)).thenReturn("ROLE_USER");
+        when(claims.get(JwtUtil.USER_ID_CLAIM, String.class)).thenReturn(userId.toString());
+        when(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).thenReturn(2);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        UsernamePasswordAuthenticationToken auth =
+                (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getPrincipal())
+                .isEqualTo(new AuthenticatedUser(userId, "testuser@example.com", "ROLE_USER"));
+        assertThat(auth.getName()).isEqualTo("testuser@example.com");
+        verify(tokenRevocations, times(1)).isRevoked(userId, 2);
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_revokedToken_doesNotSetAuthentication() throws ServletException, IOException {
+        // Arrange
+        String token = "revoked.jwt.token";
+        UUID userId = UUID.randomUUID();
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(claims);
+        when(claims.get("role", String.class)).thenReturn("ROLE_USER");
+        when(claims.get(JwtUtil.USER_ID_CLAIM, String.class)).thenReturn(userId.toString());
+        when(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).thenReturn(0);
+        when(tokenRevocations.isRevoked(userId, 0)).thenReturn(true);
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_repeatedToken_verifiesOnce() throws ServletException, IOException {
+        // Arrange
+        String token = "valid.jwt.token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
+        when(claims.get("role", String.class)).thenReturn("ROLE_USER");
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(mock(UserDetails.class));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assert SecurityContextHolder.getContext().getAuthentication() != null;
+        verify(jwtUtil, times(1)).verify(token);
+        verify(filterChain, times(2)).doFilter(request, response);
+    }
+
     @Test
     void doFilterInternal_invalidToken_doesNotSetAuthentication() throws ServletException, IOException {
         // Arrange
         String token = "invalid.jwt.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.validateToken(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(null);
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -124,8 +229,7 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtUtil, never()).validateToken(token);
-        verify(jwtUtil, never()).getClaims(token);
+        verify(jwtUtil, never()).verify(token);
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain, times(1)).doFilter(request, response);
     }
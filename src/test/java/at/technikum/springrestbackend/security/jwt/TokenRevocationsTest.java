@@ -0,0 +1,94 @@
+package at.technikum.springrestbackend.security.jwt;
+
+import at.technikum.springrestbackend.dto.UserTokenState;
+import at.technikum.springrestbackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenRevocations tokenRevocations;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocations = new TokenRevocations(userRepository, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void isRevoked_activeUser_checksVersionOncePerTtl() {
+        // Arrange
+        when(userRepository.findTokenStateById(USER_ID))
+                .thenReturn(Optional.of(new UserTokenState(USER_ID, 3, true)));
+
+        // Act & Assert
+        assertThat(tokenRevocations.isRevoked(USER_ID, 2)).isTrue();
+        assertThat(tokenRevocations.isRevoked(USER_ID, 3)).isFalse();
+        verify(userRepository, times(1)).findTokenStateById(USER_ID);
+    }
+
+    @Test
+    void isRevoked_deactivatedUser_returnsTrue() {
+        // Arrange
+        when(userRepository.findTokenStateById(USER_ID))
+                .thenReturn(Optional.of(new UserTokenState(USER_ID, null, false)));
+
+        // Act & Assert
+        assertThat(tokenRevocations.isRevoked(USER_ID, 0)).isTrue();
+    }
+
+    @Test
+    void isRevoked_deletedUser_returnsTrue() {
+        // Arrange
+        when(userRepository.findTokenStateById(USER_ID)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThat(tokenRevocations.isRevoked(USER_ID, 0)).isTrue();
+    }
+
+    @Test
+    void revokeBefore_rejectsOlderTokensOnly() {
+        // Arrange
+        when(userRepository.findTokenStateById(USER_ID))
+                .thenReturn(Optional.of(new UserTokenState(USER_ID, 0, true)));
+        tokenRevocations.isRevoked(USER_ID, 0);
+
+        // Act
+        tokenRevocations.revokeBefore(USER_ID, 2);
+        tokenRevocations.revokeBefore(USER_ID, 1);
+
+        // Assert
+        assertThat(tokenRevocations.isRevoked(USER_ID, 1)).isTrue();
+        assertThat(tokenRevocations.isRevoked(USER_ID, 2)).isFalse();
+    }
+
+    @Test
+    void setLocked_rejectsAllTokensUntilUnlocked() {
+        // Arrange
+        when(userRepository.findTokenStateById(USER_ID))
+                .thenReturn(Optional.of(new UserTokenState(USER_ID, 0, true)));
+        tokenRevocations.isRevoked(USER_ID, 0);
+
+        // Act & Assert
+        tokenRevocations.setLocked(USER_ID, true);
+        assertThat(tokenRevocations.isRevoked(USER_ID, 5)).isTrue();
+
+        tokenRevocations.setLocked(USER_ID, false);
+        assertThat(tokenRevocations.isRevoked(USER_ID, 5)).isFalse();
+    }
+}
@@ -0,0 +1,85 @@
+package at.technikum.springrestbackend.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(100, Duration.ofHours(1));
+    }
+
+    @Test
+    void get_sameToken_verifiesOnlyOnce() {
+        // Arrange
+        Claims claims = claimsExpiringIn(Duration.ofMinutes(5));
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, Claims> verifier = token -> {
+            verifications.incrementAndGet();
+            return claims;
+        };
+
+        // Act
+        Claims first = verifiedTokenCache.get("a.b.c", verifier);
+        Claims second = verifiedTokenCache.get("a.b.c", verifier);
+
+        // Assert
+        assertThat(first).isSameAs(claims);
+        assertThat(second).isSameAs(claims);
+        assertThat(verifications.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_invalidToken_isNotCached() {
+        // Arrange
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, Claims> verifier = token -> {
+            verifications.incrementAndGet();
+            return null;
+        };
+
+        // Act
+        verifiedTokenCache.get("bad.token.value", verifier);
+        Claims result = verifiedTokenCache.get("bad.token.value", verifier);
+
+        // Assert
+        assertThat(result).isNull();
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_expiredClaims_areVerifiedAgain() {
+        // Arrange
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, Claims> verifier = token -> {
+            verifications.incrementAndGet();
+            return claimsExpiringIn(Duration.ofSeconds(-1));
+        };
+
+        // Act
+        verifiedTokenCache.get("a.b.c", verifier);
+        verifiedTokenCache.get("a.b.c", verifier);
+
+        // Assert
+        assertThat(verifications.get()).isEqualTo(2);
+    }
+
+    private static Claims claimsExpiringIn(Duration duration) {
+        Claims claims = Jwts.claims();
+        claims.setSubject("testuser");
+        claims.setExpiration(new Date(System.currentTimeMillis() + duration.toMillis()));
+        return claims;
+    }
+}
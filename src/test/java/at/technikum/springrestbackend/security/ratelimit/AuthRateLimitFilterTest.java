@@ -0,0 +1,123 @@
+package at.technikum.springrestbackend.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthRateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AuthRateLimitFilter(new ObjectMapper(), meterRegistry,
+                4, 64, 10, 1, 2, 1, 1024, 10);
+    }
+
+    @Test
+    void login_withinLimit_passesBodyThrough() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(login("10.0.0.1", "User@Example.com"), response, chain);
+
+        // Assert
+        ArgumentCaptor<HttpServletRequest> forwarded =
+                ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(chain).doFilter(forwarded.capture(), any());
+        String body = new String(forwarded.getValue().getInputStream().readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(body).contains("User@Example.com");
+        assertThat(meterRegistry.counter("auth.ratelimit.allowed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void login_forwardedBody_notifiesReadListenerRightAway() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(login("10.0.0.1", "reader"), new MockHttpServletResponse(), chain);
+        ArgumentCaptor<HttpServletRequest> forwarded =
+                ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(chain).doFilter(forwarded.capture(), any());
+        ServletInputStream input = forwarded.getValue().getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ReadListener listener = mock(ReadListener.class);
+        doAnswer(invocation -> {
+            body.write(input.readAllBytes());
+            return null;
+        }).when(listener).onDataAvailable();
+
+        // Act
+        input.setReadListener(listener);
+
+        // Assert
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onDataAvailable();
+        inOrder.verify(listener).onAllDataRead();
+        verify(listener, never()).onError(any());
+        assertThat(body.toString(StandardCharsets.UTF_8)).contains("reader");
+    }
+
+    @Test
+    void login_sameAccountFromManyClients_isRejected() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(login("10.0.0.1", "victim"), new MockHttpServletResponse(), chain);
+        filter.doFilter(login("10.0.0.2", "VICTIM"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(login("10.0.0.3", "victim"), response, chain);
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("10");
+        verify(chain, times(2)).doFilter(any(), any());
+        assertThat(meterRegistry.counter("auth.ratelimit.rejected", "key", "identity").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void otherEndpoints_areNotLimited() throws Exception {
+        // Arrange
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/products");
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        // Assert
+        verify(chain, times(20)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest login(String clientAddress, String usernameOrEmail) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(clientAddress);
+        request.setContentType("application/json");
+        request.setContent(("{\"usernameOrEmail\":\"" + usernameOrEmail + "\",\"password\":\"x\"}")
+                .getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
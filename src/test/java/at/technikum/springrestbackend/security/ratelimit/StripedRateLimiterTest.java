@@ -0,0 +1,65 @@
+package at.technikum.springrestbackend.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedRateLimiterTest {
+
+    private static final long MINUTE = 60_000_000_000L;
+
+    @Test
+    void tryAcquire_allowsBurstThenRejects() {
+        // Arrange
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 16, 3, 1);
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire("10.0.0.1", 0)).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", 0)).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", 0)).isTrue();
+        assertThat(limiter.tryAcquire("10.0.0.1", 0)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() {
+        // Arrange
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 16, 1, 2);
+        limiter.tryAcquire("user@example.com", 0);
+
+        // Act
+        boolean tooEarly = limiter.tryAcquire("user@example.com", MINUTE / 4);
+        boolean refilled = limiter.tryAcquire("user@example.com", MINUTE / 2 + 1);
+
+        // Assert
+        assertThat(tooEarly).isFalse();
+        assertThat(refilled).isTrue();
+    }
+
+    @Test
+    void tryAcquire_keysHaveSeparateBuckets() {
+        // Arrange
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 1024, 1, 1);
+        limiter.tryAcquire("alice", 0);
+
+        // Act
+        boolean other = limiter.tryAcquire("bob", 0);
+
+        // Assert
+        assertThat(other).isTrue();
+        assertThat(limiter.tryAcquire("alice", 0)).isFalse();
+    }
+
+    @Test
+    void tryAcquire_fullTable_evictsInsteadOfGrowing() {
+        // Arrange
+        StripedRateLimiter limiter = new StripedRateLimiter(1, 2, 1, 1);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client-" + i, i);
+        }
+
+        // Assert
+        assertThat(limiter.evictions()).isGreaterThan(0);
+    }
+}
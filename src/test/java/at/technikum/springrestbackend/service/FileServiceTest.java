@@ -1,24 +1,27 @@
 package at.technikum.springrestbackend.service;
 
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
-import io.minio.messages.Bucket;
-import io.minio.http.Method;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.lang.reflect.Field;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,11 +36,18 @@ class FileServiceTest {
     @Mock
     private MultipartFile mockFile;
 
-    @InjectMocks
+    @Mock
+    private MultipartUploader multipartUploader;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
     private FileService fileService;
 
     @BeforeEach
     void setUp() throws Exception {
+        fileService = new FileService(minioClient, multipartUploader, imageVariantService,
+                Duration.ofHours(1), Duration.ofMinutes(40), Duration.ofMinutes(50), 100);
         // Use reflection to set the private field 'bucketName'
         Field bucketNameField = FileService.class.getDeclaredField("bucketName");
         bucketNameField.setAccessible(true);
@@ -52,13 +62,7 @@ class FileServiceTest {
         when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
         when(mockFile.getSize()).thenReturn(123L);
 
-        // Mock the Bucket
-        Bucket mockBucket = mock(Bucket.class);
-        when(mockBucket.name()).thenReturn("test-bucket");
-
-        when(minioClient.listBuckets()).thenReturn(Collections.singletonList(mockBucket));
-
-        // Do not mock `putObject` explicitly; let it execute normally unless an exception is needed.
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
 
         // Act
         String result = fileService.uploadFile(mockFile);
@@ -66,9 +70,65 @@ class FileServiceTest {
         // Assert
         assertThat(result).startsWith("/test-bucket/").contains("test-image.png");
         verify(minioClient, times(1)).putObject(any(PutObjectArgs.class));
+        verify(imageVariantService, times(1))
+                .generateVariants(eq("test-bucket"), endsWith("-test-image.png"));
+    }
+
+    @Test
+    void uploadFile_bucketAlreadyChecked_onlyPutsObject() throws Exception {
+        // Arrange
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
+        fileService.initBucket();
+        when(mockFile.getContentType()).thenReturn("image/png");
+        when(mockFile.getOriginalFilename()).thenReturn("test-image.png");
+        when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(mockFile.getSize()).thenReturn(123L);
+
+        // Act
+        fileService.uploadFile(mockFile);
+        fileService.uploadFile(mockFile);
+
+        // Assert
+        verify(minioClient, times(1)).bucketExists(any(BucketExistsArgs.class));
+        verify(minioClient, times(2)).putObject(any(PutObjectArgs.class));
+        verify(minioClient, never()).listBuckets();
+    }
+
+    @Test
+    void initBucket_missingBucket_createsIt() throws Exception {
+        // Arrange
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(false);
+
+        // Act
+        fileService.initBucket();
+
+        // Assert
+        verify(minioClient, times(1)).makeBucket(any(MakeBucketArgs.class));
     }
 
+    @Test
+    void uploadFile_bucketRemoved_recreatesBucketAndRetries() throws Exception {
+        // Arrange
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true, false);
+        fileService.initBucket();
+        when(mockFile.getContentType()).thenReturn("image/png");
+        when(mockFile.getOriginalFilename()).thenReturn("test-image.png");
+        when(mockFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+        when(mockFile.getSize()).thenReturn(123L);
+        ErrorResponse errorResponse = mock(ErrorResponse.class);
+        when(errorResponse.code()).thenReturn("NoSuchBucket");
+        ErrorResponseException noSuchBucket = mock(ErrorResponseException.class);
+        when(noSuchBucket.errorResponse()).thenReturn(errorResponse);
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(noSuchBucket).thenReturn(null);
+
+        // Act
+        String result = fileService.uploadFile(mockFile);
 
+        // Assert
+        assertThat(result).startsWith("/test-bucket/");
+        verify(minioClient, times(1)).makeBucket(any(MakeBucketArgs.class));
+        verify(minioClient, times(2)).putObject(any(PutObjectArgs.class));
+    }
 
     @Test
     void uploadFile_invalidFileType_throwsIllegalArgumentException() {
@@ -83,6 +143,67 @@ class FileServiceTest {
         verifyNoInteractions(minioClient);
     }
 
+    @Test
+    void uploadStream_imageBody_streamsThroughUploader() throws Exception {
+        // Arrange
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
+        InputStream body = new ByteArrayInputStream(new byte[]{1, 2, 3});
+
+        // Act
+        String result = fileService.uploadStream(body, "image/png", "photo.png");
+
+        // Assert
+        assertThat(result).startsWith("/test-bucket/").endsWith("-photo.png");
+        verify(multipartUploader, times(1))
+                .upload(eq("test-bucket"), endsWith("-photo.png"), eq("image/png"), same(body));
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    void uploadStream_wrappedNoSuchBucket_checksBucketAgainOnNextUpload() throws Exception {
+        // Arrange
+        when(minioClient.bucketExists(any(BucketExistsArgs.class))).thenReturn(true);
+        fileService.initBucket();
+        ErrorResponse errorResponse = mock(ErrorResponse.class);
+        when(errorResponse.code()).thenReturn("NoSuchBucket");
+        ErrorResponseException noSuchBucket = mock(ErrorResponseException.class);
+        when(noSuchBucket.errorResponse()).thenReturn(errorResponse);
+        ExecutionException wrapped = new ExecutionException(noSuchBucket);
+        when(multipartUploader.upload(any(), any(), any(), any()))
+                .thenThrow(wrapped)
+                .thenReturn(3L);
+
+        // Act
+        assertThatThrownBy(() -> fileService.uploadStream(InputStream.nullInputStream(),
+                "image/png", "large.png"))
+                .isInstanceOf(RuntimeException.class);
+        fileService.uploadStream(InputStream.nullInputStream(), "image/png", "large.png");
+
+        // Assert
+        verify(minioClient, times(2)).bucketExists(any(BucketExistsArgs.class));
+    }
+
+    @Test
+    void uploadStream_invalidContentType_throwsIllegalArgumentException() {
+        // Assert
+        assertThatThrownBy(() -> fileService.uploadStream(InputStream.nullInputStream(),
+                "application/pdf", "doc.pdf"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only image files are allowed");
+
+        verifyNoInteractions(multipartUploader);
+    }
+
+    @Test
+    void constructor_expiryBeyondSevenDays_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThatThrownBy(() -> new FileService(minioClient, multipartUploader,
+                imageVariantService, Duration.ofDays(8), Duration.ofHours(1), Duration.ofHours(2),
+                100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minio.presigned-url.expiry");
+    }
+
     @Test
     void getPresignedUrl_success_returnsUrl() throws Exception {
         // Arrange
@@ -98,4 +219,61 @@ class FileServiceTest {
         assertThat(result).isEqualTo(presignedUrl);
         verify(minioClient, times(1)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
     }
+
+    @Test
+    void getPresignedUrl_sameObject_signsOnce() throws Exception {
+        // Arrange
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenReturn("http://minio.example.com/test-bucket/a.png?sig=1");
+
+        // Act
+        String first = fileService.getPresignedUrl("a.png");
+        String second = fileService.getPresignedUrl("a.png");
+
+        // Assert
+        assertThat(second).isEqualTo(first);
+        verify(minioClient, times(1)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
+
+    @Test
+    void getImageUrl_stripsBucketAndPresignsResolvedVariant() throws Exception {
+        // Arrange
+        when(imageVariantService.resolve("a.png", 320)).thenReturn("variants/320w/a.png.jpg");
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenReturn("http://minio.example.com/test-bucket/variants/320w/a.png.jpg");
+
+        // Act
+        String result = fileService.getImageUrl("/test-bucket/a.png", 320);
+
+        // Assert
+        assertThat(result).isEqualTo("http://minio.example.com/test-bucket/variants/320w/a.png.jpg");
+        assertThat(fileService.getImageUrl(null, 320)).isNull();
+    }
+
+    @Test
+    void getImageUrls_resolvesVariantsOfAllPathsAtOnce() throws Exception {
+        // Arrange
+        when(imageVariantService.resolveAll(anyCollection(), eq(320))).thenReturn(Map.of(
+                "a.png", "variants/320w/a.png.jpg", "b.png", "b.png"));
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenReturn("http://minio.example.com/signed");
+        List<String> paths = Arrays.asList("/test-bucket/a.png", "/test-bucket/b.png", null);
+
+        // Act
+        Map<String, String> result = fileService.getImageUrls(paths, 320);
+
+        // Assert
+        assertThat(result).containsOnlyKeys("/test-bucket/a.png", "/test-bucket/b.png");
+        verify(imageVariantService, times(1)).resolveAll(anyCollection(), eq(320));
+        verify(imageVariantService, never()).resolve(any(), any());
+    }
+
+    @Test
+    void constructor_maxAgeNotBelowExpiry_throwsIllegalArgumentException() {
+        // Assert
+        assertThatThrownBy(() -> new FileService(minioClient, multipartUploader,
+                imageVariantService, Duration.ofHours(1), Duration.ofMinutes(40),
+                Duration.ofHours(1), 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
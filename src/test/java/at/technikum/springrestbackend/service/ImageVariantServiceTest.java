@@ -0,0 +1,146 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.entity.ImageVariant;
+import at.technikum.springrestbackend.repository.ImageVariantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        imageVariantService = new ImageVariantService(minioClient, imageVariantRepository,
+                new SimpleMeterRegistry(), new int[]{160, 320, 640, 1280}, 0.8f, 40_000_000L, 1,
+                10, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void generate_storesEveryWidthBelowTheOriginal() throws Exception {
+        // Arrange
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(new GetObjectResponse(Headers.of(), "pictures", null, "photo.png",
+                        new ByteArrayInputStream(png(1000, 500))));
+
+        // Act
+        imageVariantService.generate("pictures", "photo.png");
+
+        // Assert
+        verify(minioClient, times(3)).putObject(any(PutObjectArgs.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ImageVariant>> saved = ArgumentCaptor.forClass(List.class);
+        verify(imageVariantRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(ImageVariant::getWidth)
+                .containsExactly(640, 320, 160);
+        assertThat(saved.getValue()).extracting(ImageVariant::getObjectKey)
+                .contains("variants/320w/photo.png.jpg");
+    }
+
+    @Test
+    void generate_undecodableObject_storesNothing() throws Exception {
+        // Arrange
+        when(minioClient.getObject(any(GetObjectArgs.class)))
+                .thenReturn(new GetObjectResponse(Headers.of(), "pictures", null, "photo.png",
+                        new ByteArrayInputStream(new byte[]{1, 2, 3})));
+
+        // Act
+        imageVariantService.generate("pictures", "photo.png");
+
+        // Assert
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+        verifyNoInteractions(imageVariantRepository);
+    }
+
+    @Test
+    void resolve_returnsSmallestVariantCoveringTheWidth() {
+        // Arrange
+        when(imageVariantRepository.findByOriginalKeyIn(List.of("photo.png"))).thenReturn(List.of(
+                new ImageVariant("photo.png", "variants/640w/photo.png.jpg", 640, 1),
+                new ImageVariant("photo.png", "variants/160w/photo.png.jpg", 160, 1),
+                new ImageVariant("photo.png", "variants/320w/photo.png.jpg", 320, 1)));
+
+        // Act & Assert
+        assertThat(imageVariantService.resolve("photo.png", 300))
+                .isEqualTo("variants/320w/photo.png.jpg");
+        assertThat(imageVariantService.resolve("photo.png", 160))
+                .isEqualTo("variants/160w/photo.png.jpg");
+        assertThat(imageVariantService.resolve("photo.png", 2000)).isEqualTo("photo.png");
+        verify(imageVariantRepository, times(1)).findByOriginalKeyIn(anyCollection());
+    }
+
+    @Test
+    void resolveAll_loadsUncachedWidthsWithOneQuery() {
+        // Arrange
+        when(imageVariantRepository.findByOriginalKeyIn(anyCollection())).thenReturn(List.of(
+                new ImageVariant("a.png", "variants/320w/a.png.jpg", 320, 1)));
+
+        // Act
+        Map<String, String> first = imageVariantService.resolveAll(List.of("a.png", "b.png"), 300);
+        Map<String, String> second = imageVariantService.resolveAll(List.of("a.png", "b.png"), 300);
+
+        // Assert
+        assertThat(first).containsOnly(Map.entry("a.png", "variants/320w/a.png.jpg"),
+                Map.entry("b.png", "b.png"));
+        assertThat(second).isEqualTo(first);
+        verify(imageVariantRepository, times(1)).findByOriginalKeyIn(anyCollection());
+    }
+
+    @Test
+    void resolve_withoutWidth_returnsOriginalWithoutLookup() {
+        // Act & Assert
+        assertThat(imageVariantService.resolve("photo.png", null)).isEqualTo("photo.png");
+        verifyNoInteractions(imageVariantRepository);
+    }
+
+    @Test
+    void scale_keepsAspectRatio() {
+        // Act
+        BufferedImage scaled = ImageVariantService.scale(
+                new BufferedImage(1000, 500, BufferedImage.TYPE_INT_ARGB), 160);
+
+        // Assert
+        assertThat(scaled.getWidth()).isEqualTo(160);
+        assertThat(scaled.getHeight()).isEqualTo(80);
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,185 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.CreateMultipartUploadResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.UploadPartResponse;
+import io.minio.messages.InitiateMultipartUploadResult;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultipartUploaderTest {
+
+    private static final int PART_SIZE = MultipartUploader.MIN_PART_SIZE;
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private MinioMultipartClient multipartClient;
+
+    private MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        uploader = uploader(4, DataSize.ofMegabytes(20));
+    }
+
+    @Test
+    void upload_smallerThanOnePart_putsSingleObject() throws Exception {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(new byte[1024]);
+
+        // Act
+        long size = uploader.upload("bucket", "small.png", "image/png", body);
+
+        // Assert
+        assertThat(size).isEqualTo(1024);
+        verify(minioClient, times(1)).putObject(any(PutObjectArgs.class));
+        verifyNoInteractions(multipartClient);
+    }
+
+    @Test
+    void upload_exactlyOnePart_putsSingleObject() throws Exception {
+        // Arrange
+        InputStream body = new ByteArrayInputStream(new byte[PART_SIZE]);
+
+        // Act
+        long size = uploader.upload("bucket", "exact.png", "image/png", body);
+
+        // Assert
+        assertThat(size).isEqualTo(PART_SIZE);
+        verify(minioClient, times(1)).putObject(any(PutObjectArgs.class));
+        verifyNoInteractions(multipartClient);
+    }
+
+    @Test
+    void upload_largerThanOnePart_uploadsPartsAndCompletes() throws Exception {
+        // Arrange
+        stubMultipartUpload();
+        InputStream body = new ByteArrayInputStream(new byte[2 * PART_SIZE + 100]);
+
+        // Act
+        long size = uploader.upload("bucket", "large.png", "image/png", body);
+
+        // Assert
+        assertThat(size).isEqualTo(2L * PART_SIZE + 100);
+        verify(multipartClient).uploadPart(eq("bucket"), eq("large.png"), eq("upload-1"), eq(1),
+                any(), eq(PART_SIZE));
+        verify(multipartClient).uploadPart(eq("bucket"), eq("large.png"), eq("upload-1"), eq(3),
+                any(), eq(100));
+        ArgumentCaptor<Part[]> parts = ArgumentCaptor.forClass(Part[].class);
+        verify(multipartClient).completeMultipartUpload(eq("bucket"), eq("large.png"),
+                eq("upload-1"), parts.capture());
+        assertThat(parts.getValue()).extracting(Part::partNumber).containsExactly(1, 2, 3);
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+    }
+
+    @Test
+    void upload_exceedsMaxSize_abortsUpload() throws Exception {
+        // Arrange
+        uploader = uploader(4, DataSize.ofBytes(PART_SIZE + 1));
+        stubMultipartUpload();
+        InputStream body = new ByteArrayInputStream(new byte[3 * PART_SIZE]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> uploader.upload("bucket", "huge.png", "image/png", body))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(multipartClient, times(1)).abortMultipartUpload("bucket", "huge.png", "upload-1");
+        verify(multipartClient, never()).completeMultipartUpload(any(), any(), any(), any());
+    }
+
+    @Test
+    void upload_abortFails_attachesFailureToUploadError() throws Exception {
+        // Arrange
+        uploader = uploader(4, DataSize.ofBytes(PART_SIZE + 1));
+        stubMultipartUpload();
+        when(multipartClient.abortMultipartUpload("bucket", "huge.png", "upload-1"))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("abort refused")));
+        InputStream body = new ByteArrayInputStream(new byte[3 * PART_SIZE]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> uploader.upload("bucket", "huge.png", "image/png", body))
+                .isInstanceOf(IllegalArgumentException.class)
+                .satisfies(e -> assertThat(e.getSuppressed()).singleElement()
+                        .satisfies(abort -> assertThat(abort)
+                                .hasRootCauseMessage("abort refused")));
+    }
+
+    @Test
+    void upload_createFails_returnsBufferToPool() throws Exception {
+        // Arrange
+        when(multipartClient.createMultipartUpload(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("NoSuchBucket")));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        uploader.bindTo(registry);
+        InputStream body = new ByteArrayInputStream(new byte[2 * PART_SIZE]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> uploader.upload("bucket", "new.png", "image/png", body))
+                .isInstanceOf(ExecutionException.class);
+        assertThat(registry.get("files.upload.buffers.in-use").gauge().value()).isZero();
+        verify(multipartClient, never()).abortMultipartUpload(any(), any(), any());
+    }
+
+    @Test
+    void upload_poolExhausted_throwsServiceUnavailableException() throws Exception {
+        // Arrange
+        uploader = uploader(1, DataSize.ofMegabytes(20));
+        stubMultipartUpload();
+        // The first part outlasts the acquire timeout, so the only buffer stays taken
+        UploadPartResponse uploaded = mock(UploadPartResponse.class);
+        when(multipartClient.uploadPart(any(), any(), any(), anyInt(), any(), anyInt()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> uploaded,
+                        CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS)));
+        InputStream body = new ByteArrayInputStream(new byte[2 * PART_SIZE]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> uploader.upload("bucket", "busy.png", "image/png", body))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verify(multipartClient, times(1)).abortMultipartUpload("bucket", "busy.png", "upload-1");
+    }
+
+    private MultipartUploader uploader(int poolSize, DataSize maxSize) {
+        return new MultipartUploader(minioClient, multipartClient, DataSize.ofBytes(PART_SIZE), 2,
+                poolSize, maxSize, Duration.ofMillis(50));
+    }
+
+    private void stubMultipartUpload() throws Exception {
+        InitiateMultipartUploadResult result = mock(InitiateMultipartUploadResult.class);
+        lenient().when(result.uploadId()).thenReturn("upload-1");
+        CreateMultipartUploadResponse created = mock(CreateMultipartUploadResponse.class);
+        lenient().when(created.result()).thenReturn(result);
+        lenient().when(multipartClient.createMultipartUpload(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(created));
+        UploadPartResponse uploaded = mock(UploadPartResponse.class);
+        lenient().when(uploaded.etag()).thenReturn("etag");
+        lenient().when(multipartClient.uploadPart(any(), any(), any(), anyInt(), any(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(uploaded));
+        lenient().when(multipartClient.completeMultipartUpload(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(multipartClient.abortMultipartUpload(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+}
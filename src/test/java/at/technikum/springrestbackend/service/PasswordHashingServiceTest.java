@@ -0,0 +1,100 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.config.BCryptCostCalibrator;
+import at.technikum.springrestbackend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        passwordEncoder = mock(BCryptPasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(Duration.ofMillis(250), 10, 14, 10);
+        passwordHashingService = new PasswordHashingService(
+                passwordEncoder, calibrator, meterRegistry, 1, 1, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void encode_runsOnPoolAndRecordsLatency() {
+        // Arrange
+        when(passwordEncoder.encode("secret")).thenReturn("hash");
+
+        // Act
+        String result = passwordHashingService.encode("secret").join();
+
+        // Assert
+        assertThat(result).isEqualTo("hash");
+        assertThat(meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void matches_returnsEncoderResult() {
+        // Arrange
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        // Act & Assert
+        assertThat(passwordHashingService.matches("secret", "hash").join()).isTrue();
+    }
+
+    @Test
+    void needsRehash_onlyForLowerStoredCost() {
+        // Act & Assert
+        assertThat(passwordHashingService.needsRehash("$2a$10$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(passwordHashingService.needsRehash("$2a$08$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(passwordHashingService.needsRehash("$2a$12$abcdefghijklmnopqrstuv")).isFalse();
+    }
+
+    @Test
+    void needsRehash_malformedCost_isRejected() {
+        // Act & Assert
+        assertThat(passwordHashingService.needsRehash("not-a-bcrypt-hash")).isFalse();
+        assertThat(passwordHashingService.needsRehash("$2a$xx$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(passwordHashingService.needsRehash("$2a$999999999999$abcdefghij")).isFalse();
+        assertThat(passwordHashingService.needsRehash(null)).isFalse();
+    }
+
+    @Test
+    void matches_queueFull_rejectsWithRetryAfter() throws InterruptedException {
+        // Arrange: one running task and one queued task fill the pool
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.matches("slow", "hash")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        passwordHashingService.matches("slow", "hash");
+        started.await(5, TimeUnit.SECONDS);
+        passwordHashingService.matches("slow", "hash");
+
+        // Act & Assert
+        assertThatThrownBy(() -> passwordHashingService.matches("slow", "hash"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .extracting("retryAfterSeconds").isEqualTo(3L);
+        assertThat(meterRegistry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+    }
+}
@@ -0,0 +1,138 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.dto.ImportResult;
+import at.technikum.springrestbackend.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(
+                productService, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importProducts_ndjson_writesValidRowsInBatches() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"name":"A","price":1.0,"description":"a","category":"X","stockQuantity":1}
+                {"name":"B","price":2.0,"description":"b","category":"X","stockQuantity":2}
+                {"name":"C","price":3.0,"description":"c","category":"Y","stockQuantity":3}
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(body(ndjson), false, false);
+
+        // Assert
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.failed()).isZero();
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(2)).addProducts(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void importProducts_invalidRows_areReportedAndSkipped() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"name":"A","price":-1.0,"description":"a","category":"X","stockQuantity":1}
+                not json
+                {"name":"C","price":3.0,"description":"c","category":"Y","stockQuantity":3}
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(body(ndjson), false, false);
+
+        // Assert
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ImportResult.ImportError::line).containsExactly(1L, 2L);
+        assertThat(result.errors().get(0).message()).contains("price");
+    }
+
+    @Test
+    void importProducts_gzipCsv_parsesHeaderAndQuotes() throws Exception {
+        // Arrange
+        String csv = "name,price,description,category,stockQuantity\n"
+                + "\"Desk, oak\",199.5,\"The \"\"best\"\" desk\",Furniture,4\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Act
+        ImportResult result = productImportService.importProducts(
+                new ByteArrayInputStream(compressed.toByteArray()), true, true);
+
+        // Assert
+        assertThat(result.imported()).isEqualTo(1);
+        verify(productService).addProducts(argThat(products ->
+                products.get(0).getName().equals("Desk, oak")
+                        && products.get(0).getDescription().equals("The \"best\" desk")));
+    }
+
+    @Test
+    void importProducts_failedSingleRowBatch_reportsRow() throws Exception {
+        // Arrange
+        doThrow(new RuntimeException("duplicate")).when(productService).addProducts(anyList());
+        String ndjson = "{\"name\":\"A\",\"price\":1.0,\"description\":\"a\",\"category\":\"X\",\"stockQuantity\":1}\n";
+
+        // Act
+        ImportResult result = productImportService.importProducts(body(ndjson), false, false);
+
+        // Assert
+        assertThat(result.imported()).isZero();
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors().get(0).message()).isEqualTo("Insert failed: duplicate");
+    }
+
+    @Test
+    void importProducts_failedBatch_reportsOnlyOffendingRow() throws Exception {
+        // Arrange
+        lenient().doThrow(new RuntimeException("duplicate")).when(productService).addProducts(argThat(
+                products -> products.stream().anyMatch(product -> product.getName().equals("B"))));
+        String ndjson = """
+                {"name":"A","price":1.0,"description":"a","category":"X","stockQuantity":1}
+                {"name":"B","price":2.0,"description":"b","category":"X","stockQuantity":2}
+                """;
+
+        // Act
+        ImportResult result = productImportService.importProducts(body(ndjson), false, false);
+
+        // Assert
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).extracting(ImportResult.ImportError::line).containsExactly(2L);
+        verify(productService, times(3)).addProducts(anyList());
+    }
+}
@@ -1,23 +1,44 @@
 package at.technikum.springrestbackend.service;
 
+import at.technikum.springrestbackend.cache.ProductCache;
+import at.technikum.springrestbackend.dto.CategoryFacet;
+import at.technikum.springrestbackend.dto.CursorPage;
 import at.technikum.springrestbackend.dto.ProductDto;
+import at.technikum.springrestbackend.dto.ProductFilter;
+import at.technikum.springrestbackend.dto.ProductImage;
 import at.technikum.springrestbackend.entity.Product;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
 import at.technikum.springrestbackend.repository.ProductRepository;
+import at.technikum.springrestbackend.search.ProductFacets;
+import at.technikum.springrestbackend.search.ProductSearchIndex;
+import at.technikum.springrestbackend.util.ProductCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,6 +50,21 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductFacets productFacets;
+
+    @Mock
+    private FileService fileService;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(1));
+
     @InjectMocks
     private ProductService productService;
 
@@ -72,6 +108,25 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findAll();
     }
 
+    @Test
+    void exportProducts_writesOneLinePerProduct() throws Exception {
+        // Arrange
+        // Fresh instance, the shared fixture is modified by the update tests
+        Product product = new Product("Export Product", 19.99, "Description", "Category", 5,
+                null, "testuser", "testuser");
+        when(productRepository.streamAll(anyInt())).thenReturn(Stream.of(product, product));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = productService.exportProducts(out);
+
+        // Assert
+        assertThat(count).isEqualTo(2);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"name\":\"Export Product\"");
+    }
+
     @Test
     void getProduct_returnsProduct() {
         // Act
@@ -82,6 +137,32 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(PRODUCT_ID);
     }
 
+    @Test
+    void getProduct_secondCall_isServedFromCache() {
+        // Act
+        productService.getProduct(PRODUCT_ID);
+        Product product = productService.getProduct(PRODUCT_ID);
+
+        // Assert
+        assertThat(product).isEqualTo(TEST_PRODUCT);
+        verify(productRepository, times(1)).findById(PRODUCT_ID);
+    }
+
+    @Test
+    void updateProduct_evictsCachedProduct() {
+        // Arrange
+        when(productRepository.save(any(Product.class))).thenReturn(TEST_PRODUCT);
+        productService.getProduct(PRODUCT_ID);
+
+        // Act
+        productService.updateProduct(PRODUCT_ID, TEST_PRODUCT_DTO);
+        productService.getProduct(PRODUCT_ID);
+
+        // Assert
+        verify(productCache, times(1)).evict(PRODUCT_ID);
+        verify(productRepository, times(3)).findById(PRODUCT_ID);
+    }
+
     @Test
     void getProduct_throwsResourceNotFoundException() {
         // Arrange
@@ -98,15 +179,293 @@ class ProductServiceTest {
     void getProductsWithSorting_returnsPagedProducts() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Product> productPage = new PageImpl<>(List.of(TEST_PRODUCT), pageable, 1);
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        Pageable byId = PageRequest.of(0, 10, Sort.by("id"));
+        Page<Product> productPage = new PageImpl<>(List.of(TEST_PRODUCT), byId, 1);
+        when(productRepository.findAll(byId)).thenReturn(productPage);
 
         // Act
         Page<Product> result = productService.getProductsWithSorting(pageable);
 
         // Assert
         assertThat(result.getContent()).containsExactly(TEST_PRODUCT);
-        verify(productRepository, times(1)).findAll(pageable);
+        verify(productRepository, times(1)).findAll(byId);
+    }
+
+    @Test
+    void getProductsWithSorting_addsIdTieBreakerInSameDirection() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "price"));
+        Pageable expected = PageRequest.of(1, 5,
+                Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id")));
+        when(productRepository.findAll(expected)).thenReturn(Page.empty(expected));
+
+        // Act
+        productService.getProductsWithSorting(pageable);
+
+        // Assert
+        verify(productRepository, times(1)).findAll(expected);
+    }
+
+    @Test
+    void getProductsWithSorting_unindexedProperty_throwsIllegalArgumentException() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("description"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getProductsWithSorting(pageable))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported sort property: description");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductsWithSorting_multipleProperties_throwsIllegalArgumentException() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("price", "name"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getProductsWithSorting(pageable))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void filterProducts_queriesWithSpecificationAndIndexedSort() {
+        // Arrange
+        ProductFilter filter = new ProductFilter("Test Category", 10.0, 100.0, true, null, null);
+        Pageable expected = PageRequest.of(0, 10,
+                Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id")));
+        Page<Product> productPage = new PageImpl<>(List.of(TEST_PRODUCT), expected, 1);
+        when(productRepository.findAll(any(Specification.class), eq(expected))).thenReturn(productPage);
+
+        // Act
+        Page<Product> result = productService.filterProducts(filter, PageRequest.of(0, 10, Sort.by("price")));
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(TEST_PRODUCT);
+    }
+
+    @Test
+    void filterProducts_invertedPriceRange_throwsIllegalArgumentException() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(null, 50.0, 10.0, null, null, null);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.filterProducts(filter, PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minPrice must not be greater than maxPrice");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getAllProductFields_selectsRequestedColumnsOnly() {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(Map.of("id", PRODUCT_ID, "name", "Test Product"));
+        when(productRepository.findFields(List.of("id", "name"), Pageable.unpaged())).thenReturn(rows);
+
+        // Act
+        List<Map<String, Object>> result = productService.getAllProductFields(List.of(" id", "name", "id"));
+
+        // Assert
+        assertThat(result).isEqualTo(rows);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllProductFields_unknownField_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getAllProductFields(List.of("id", "password")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: password");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getAllProductFields_withImageSrc_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getAllProductFields(List.of("id", "imageSrc")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("/products/sorted");
+        verifyNoInteractions(productRepository, fileService);
+    }
+
+    @Test
+    void getProductFieldsWithSorting_withImageSrc_resolvesUrlsOfWholePageAtOnce() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("id", PRODUCT_ID);
+        first.put("imageUrl", "/pictures/a.png");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("id", PRODUCT_ID);
+        second.put("imageUrl", null);
+        when(productRepository.findFields(List.of("id", "imageUrl"),
+                PageRequest.of(0, 2, Sort.by("id")))).thenReturn(List.of(first, second));
+        when(fileService.getImageUrls(anyList(), eq(320)))
+                .thenReturn(Map.of("/pictures/a.png", "http://minio/a.jpg"));
+
+        // Act
+        Page<Map<String, Object>> result = productService.getProductFieldsWithSorting(
+                List.of("id", "imageSrc"), pageable, 320);
+
+        // Assert
+        assertThat(result.getContent().get(0))
+                .isEqualTo(Map.of("id", PRODUCT_ID, "imageSrc", "http://minio/a.jpg"));
+        assertThat(result.getContent().get(1)).containsEntry("imageSrc", null)
+                .doesNotContainKey("imageUrl");
+        verify(fileService, times(1)).getImageUrls(anyList(), eq(320));
+        verify(fileService, never()).getImageUrl(any(), any());
+    }
+
+    @Test
+    void getImageUrls_resolvesAllIdsWithOneQuery() {
+        // Arrange
+        UUID withoutImage = UUID.randomUUID();
+        when(productRepository.findImagesByIdIn(List.of(PRODUCT_ID, withoutImage))).thenReturn(List.of(
+                new ProductImage(PRODUCT_ID, "/pictures/a.png"),
+                new ProductImage(withoutImage, null)));
+        when(fileService.getImageUrls(anyList(), isNull()))
+                .thenReturn(Map.of("/pictures/a.png", "http://minio/a.png"));
+
+        // Act
+        Map<UUID, String> result =
+                productService.getImageUrls(List.of(PRODUCT_ID, withoutImage, PRODUCT_ID), null);
+
+        // Assert
+        assertThat(result).containsExactly(Map.entry(PRODUCT_ID, "http://minio/a.png"));
+        verify(productRepository, times(1)).findImagesByIdIn(anyCollection());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void getImageUrls_tooManyIds_throwsIllegalArgumentException() {
+        // Arrange
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(201).toList();
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.getImageUrls(ids, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductFieldsWithSorting_returnsPageWithTotal() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        List<Map<String, Object>> rows = List.of(Map.of("price", 99.99));
+        when(productRepository.findFields(List.of("price"), PageRequest.of(0, 1, Sort.by("id"))))
+                .thenReturn(rows);
+        when(productRepository.count()).thenReturn(3L);
+
+        // Act
+        Page<Map<String, Object>> result =
+                productService.getProductFieldsWithSorting(List.of("price"), pageable, null);
+
+        // Assert
+        assertThat(result.getContent()).isEqualTo(rows);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void searchProducts_returnsRankedPage() {
+        // Arrange
+        UUID secondId = UUID.randomUUID();
+        Product second = new Product("Second", 5.0, "Second", "Test Category", 1, null, null, null);
+        ReflectionTestUtils.setField(second, "id", secondId);
+        Product first = new Product("First", 9.0, "First", "Test Category", 1, null, null, null);
+        ReflectionTestUtils.setField(first, "id", PRODUCT_ID);
+        when(productSearchIndex.search("test")).thenReturn(List.of(secondId, PRODUCT_ID));
+        when(productRepository.findAllById(List.of(secondId, PRODUCT_ID))).thenReturn(List.of(first, second));
+
+        // Act
+        Page<Product> result = productService.searchProducts("test", PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getContent()).containsExactly(second, first);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildProductIndexes_indexesAllProducts() {
+        // Arrange
+        when(productRepository.streamAll(anyInt())).thenReturn(Stream.of(TEST_PRODUCT));
+
+        // Act
+        productService.rebuildProductIndexes();
+
+        // Assert
+        verify(productSearchIndex, times(1)).clear();
+        verify(productSearchIndex, times(1)).index(TEST_PRODUCT);
+        verify(productFacets, times(1)).clear();
+        verify(productFacets, times(1)).put(TEST_PRODUCT);
+    }
+
+    @Test
+    void reconcileFacets_countersInSync_doesNotRebuild() {
+        // Arrange
+        CategoryFacet facet = new CategoryFacet("Test Category", 1L, 1L, 99.99, 99.99);
+        when(productRepository.findCategoryFacets()).thenReturn(List.of(facet));
+        when(productFacets.snapshot()).thenReturn(List.of(facet));
+
+        // Act
+        productService.reconcileFacets();
+
+        // Assert
+        verify(productRepository, never()).streamAll(anyInt());
+    }
+
+    @Test
+    void reconcileFacets_countersDrifted_rebuildsFacetsOnly() {
+        // Arrange
+        CategoryFacet facet = new CategoryFacet("Test Category", 1L, 1L, 99.99, 99.99);
+        when(productRepository.findCategoryFacets()).thenReturn(List.of(facet));
+        when(productFacets.snapshot()).thenReturn(List.of());
+        when(productRepository.streamAll(anyInt())).thenReturn(Stream.of(TEST_PRODUCT));
+
+        // Act
+        productService.reconcileFacets();
+
+        // Assert
+        verify(productFacets, times(1)).rebuild(any());
+        verify(productFacets, never()).clear();
+        verify(productSearchIndex, never()).clear();
+        verify(productSearchIndex, never()).index(any());
+    }
+
+    @Test
+    void getProductsAfterCursor_firstPage_returnsNextCursor() {
+        // Arrange
+        Product first = new Product("First", 99.99, "First", "Test Category", 1, null, null, null);
+        Product second = new Product("Second", 5.0, "Second", "Test Category", 1, null, null, null);
+        ReflectionTestUtils.setField(first, "id", UUID.randomUUID());
+        when(productRepository.findPageAfter(any(ProductCursor.class), eq(2)))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        CursorPage<Product> result = productService.getProductsAfterCursor("", Sort.by("price"), 1);
+
+        // Assert
+        assertThat(result.content()).containsExactly(first);
+        assertThat(result.nextCursor()).isNotNull();
+        ProductCursor next = ProductCursor.decode(result.nextCursor());
+        assertThat(next.property()).isEqualTo("price");
+        assertThat(next.id()).isEqualTo(first.getId());
+        assertThat(next.typedKey()).isEqualTo(99.99);
+    }
+
+    @Test
+    void getProductsAfterCursor_lastPage_returnsNoCursor() {
+        // Arrange
+        when(productRepository.findPageAfter(any(ProductCursor.class), eq(11)))
+                .thenReturn(List.of(TEST_PRODUCT));
+
+        // Act
+        CursorPage<Product> result = productService.getProductsAfterCursor(null, Sort.unsorted(), 10);
+
+        // Assert
+        assertThat(result.content()).containsExactly(TEST_PRODUCT);
+        assertThat(result.nextCursor()).isNull();
     }
 
     @Test
@@ -160,6 +519,103 @@ class ProductServiceTest {
 
         // Assert
         verify(productRepository, times(1)).deleteById(PRODUCT_ID);
+        verify(productCache, times(1)).evict(PRODUCT_ID);
+        verify(productSearchIndex, times(1)).remove(PRODUCT_ID);
+        verify(productFacets, times(1)).remove(PRODUCT_ID);
+    }
+
+    @Test
+    void repriceCategory_updatesWithOneStatementAndEvicts() {
+        // Arrange
+        when(productRepository.findIdsByCategory("Test Category")).thenReturn(List.of(PRODUCT_ID));
+        when(productRepository.scalePriceByCategory(eq("Test Category"), eq(1.1), any())).thenReturn(1);
+
+        // Act
+        int updated = productService.repriceCategory("Test Category", 10);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        verify(productCache, times(1)).evictAll(List.of(PRODUCT_ID));
+        verify(productFacets, times(1)).scalePrice(PRODUCT_ID, 1.1);
+    }
+
+    @Test
+    void updateStock_updatesWithOneStatementAndEvicts() {
+        // Arrange
+        when(productRepository.updateStockByIds(eq(List.of(PRODUCT_ID)), eq(0), any())).thenReturn(1);
+
+        // Act
+        int updated = productService.updateStock(List.of(PRODUCT_ID), 0);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        verify(productCache, times(1)).evictAll(List.of(PRODUCT_ID));
+        verify(productFacets, times(1)).setStock(PRODUCT_ID, 0);
+    }
+
+    @Test
+    void updateStock_inTransaction_evictsOnlyAfterCommit() {
+        // Arrange
+        when(productRepository.updateStockByIds(eq(List.of(PRODUCT_ID)), eq(0), any())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            productService.updateStock(List.of(PRODUCT_ID), 0);
+
+            // Assert
+            verifyNoInteractions(productCache, productFacets);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+            verify(productCache, times(1)).evictAll(List.of(PRODUCT_ID));
+            verify(productFacets, times(1)).setStock(PRODUCT_ID, 0);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateStock_manyIds_updatesInChunks() {
+        // Arrange
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(1500).toList();
+        when(productRepository.updateStockByIds(anyList(), eq(3), any())).thenReturn(1000, 500);
+
+        // Act
+        int updated = productService.updateStock(ids, 3);
+
+        // Assert
+        assertThat(updated).isEqualTo(1500);
+        verify(productRepository, times(2)).updateStockByIds(anyList(), eq(3), any());
+    }
+
+    @Test
+    void removeProducts_deletesInChunks() {
+        // Arrange
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(1500).toList();
+        when(productRepository.deleteByIdIn(anyList())).thenReturn(1000, 500);
+
+        // Act
+        int deleted = productService.removeProducts(ids);
+
+        // Assert
+        assertThat(deleted).isEqualTo(1500);
+        verify(productRepository, times(2)).deleteByIdIn(anyList());
+        verify(productSearchIndex, times(1500)).remove(any(UUID.class));
+    }
+
+    @Test
+    void removeProductsByCategory_outOfStockOnly_usesOutOfStockIds() {
+        // Arrange
+        when(productRepository.findOutOfStockIdsByCategory("Test Category")).thenReturn(List.of(PRODUCT_ID));
+        when(productRepository.deleteOutOfStockByCategory("Test Category")).thenReturn(1);
+
+        // Act
+        int deleted = productService.removeProductsByCategory("Test Category", true);
+
+        // Assert
+        assertThat(deleted).isEqualTo(1);
+        verify(productRepository, never()).findIdsByCategory(anyString());
+        verify(productRepository, never()).deleteByIdIn(anyCollection());
+        verify(productFacets, times(1)).remove(PRODUCT_ID);
     }
 
     @Test
@@ -0,0 +1,139 @@
+package at.technikum.springrestbackend.service;
+
+import at.technikum.springrestbackend.dto.AuthTokens;
+import at.technikum.springrestbackend.entity.RefreshToken;
+import at.technikum.springrestbackend.entity.User;
+import at.technikum.springrestbackend.exception.UnauthorizedException;
+import at.technikum.springrestbackend.property.JwtProperties;
+import at.technikum.springrestbackend.repository.RefreshTokenRepository;
+import at.technikum.springrestbackend.repository.UserRepository;
+import at.technikum.springrestbackend.security.jwt.TokenRevocations;
+import at.technikum.springrestbackend.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    private RefreshTokenService refreshTokenService;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String EMAIL = "testuser@example.com";
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, jwtUtil,
+                tokenRevocations, new JwtProperties(), 100);
+        testUser = new User("USA", EMAIL, "hash", User.Role.USER, "Mr.", null,
+                "testuser", "/pictures/profile.jpg", true);
+        testUser.setId(USER_ID);
+        lenient().when(jwtUtil.generateToken(USER_ID, EMAIL, "USER", 0)).thenReturn("access-token");
+        lenient().when(jwtUtil.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        lenient().when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
+    }
+
+    @Test
+    void issueTokens_storesOnlyTheTokenDigest() {
+        // Act
+        AuthTokens tokens = refreshTokenService.issueTokens(testUser);
+
+        // Assert
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(tokens.accessToken()).isEqualTo("access-token");
+        assertThat(tokens.expiresIn()).isEqualTo(900);
+        assertThat(saved.getValue().getTokenHash()).isNotEqualTo(tokens.refreshToken());
+        assertThat(saved.getValue().getExpiresAt()).isAfter(LocalDateTime.now().plusDays(13));
+    }
+
+    @Test
+    void refresh_recentlyIssuedToken_rotatesWithoutSelect() {
+        // Arrange
+        AuthTokens issued = refreshTokenService.issueTokens(testUser);
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(1);
+
+        // Act
+        AuthTokens refreshed = refreshTokenService.refresh(issued.refreshToken());
+
+        // Assert
+        assertThat(refreshed.refreshToken()).isNotEqualTo(issued.refreshToken());
+        verify(refreshTokenRepository, never()).findByTokenHash(anyString());
+        verify(refreshTokenRepository, times(2)).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void refresh_uncachedToken_usesSingleLookup() {
+        // Arrange
+        RefreshToken stored = new RefreshToken("digest", testUser, 0, LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(1);
+
+        // Act
+        AuthTokens refreshed = refreshTokenService.refresh("token-from-another-instance");
+
+        // Assert
+        assertThat(refreshed.accessToken()).isEqualTo("access-token");
+        verify(refreshTokenRepository, times(1)).findByTokenHash(anyString());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void refresh_alreadyUsedToken_throwsUnauthorized() {
+        // Arrange
+        AuthTokens issued = refreshTokenService.issueTokens(testUser);
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(0);
+
+        // Act & Assert
+        assertThatThrownBy(() -> refreshTokenService.refresh(issued.refreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void refresh_unknownToken_throwsUnauthorized() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> refreshTokenService.refresh("unknown"))
+                .isInstanceOf(UnauthorizedException.class)
+                .hasMessage("Invalid refresh token");
+    }
+
+    @Test
+    void refresh_revokedUser_throwsUnauthorized() {
+        // Arrange
+        AuthTokens issued = refreshTokenService.issueTokens(testUser);
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(1);
+        when(tokenRevocations.isRevoked(USER_ID, 0)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> refreshTokenService.refresh(issued.refreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+}
@@ -2,21 +2,26 @@ package at.technikum.springrestbackend.service;
 
 import at.technikum.springrestbackend.dto.UserDto;
 import at.technikum.springrestbackend.entity.User;
+import at.technikum.springrestbackend.exception.ConflictException;
 import at.technikum.springrestbackend.exception.ResourceNotFoundException;
 import at.technikum.springrestbackend.repository.UserRepository;
+import at.technikum.springrestbackend.security.jwt.AuthenticatedUser;
+import at.technikum.springrestbackend.security.jwt.TokenRevocations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -29,9 +34,14 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
 
-    @InjectMocks
     private UserService userService;
 
     private static final UUID USER_ID = UUID.randomUUID();
@@ -61,9 +71,13 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Runs the save on the calling thread
+        userService = new UserService(userRepository, passwordHashingService, tokenRevocations,
+                refreshTokenService, Runnable::run);
         lenient().when(userRepository.findById(USER_ID)).thenReturn(Optional.of(TEST_USER));
         lenient().when(userRepository.findAll()).thenReturn(List.of(TEST_USER));
-        lenient().when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        lenient().when(passwordHashingService.encode(anyString()))
+                .thenReturn(CompletableFuture.completedFuture("encodedPassword"));
     }
 
     @Test
@@ -114,13 +128,46 @@ class UserServiceTest {
         );
 
         // Act
-        userService.registerUser(newUser);
+        userService.registerUser(newUser).join();
 
         // Assert
         assertThat(newUser.getPassword()).isEqualTo("encodedPassword");
         verify(userRepository, times(1)).save(newUser);
     }
 
+    @Test
+    void registerUser_savesOnDatabaseExecutor() {
+        // Arrange
+        List<Runnable> submitted = new ArrayList<>();
+        userService = new UserService(userRepository, passwordHashingService, tokenRevocations,
+                refreshTokenService, submitted::add);
+        User newUser = new User("Canada", "async@example.com", "newPassword", User.Role.USER,
+                "New User", null, "async", "/pictures/async.jpg", true);
+
+        // Act
+        CompletableFuture<Void> registration = userService.registerUser(newUser);
+
+        // Assert
+        verify(userRepository, never()).save(any());
+        assertThat(submitted).hasSize(1);
+        submitted.get(0).run();
+        assertThat(registration).isCompleted();
+        verify(userRepository, times(1)).save(newUser);
+    }
+
+    @Test
+    void registerUser_duplicateIdentifier_completesWithConflict() {
+        // Arrange
+        User newUser = new User("Canada", "TestUser@example.com", "newPassword", User.Role.USER,
+                "New User", null, "other", "/pictures/new.jpg", true);
+        when(userRepository.save(newUser)).thenThrow(new DataIntegrityViolationException("uk_user_email_normalized"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.registerUser(newUser).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ConflictException.class);
+    }
+
     @Test
     void updateUser_updatesUserFields() {
         // Arrange
@@ -164,6 +211,27 @@ class UserServiceTest {
         assertThat(result.getProfilePictureUrl()).isEqualTo("/pictures/updated.jpg");
         assertThat(result.getIsActive()).isFalse();
         verify(userRepository, times(1)).save(TEST_USER);
+        verify(tokenRevocations, times(1)).revokeBefore(eq(USER_ID), anyInt());
+        verify(tokenRevocations, times(1)).setLocked(USER_ID, true);
+    }
+
+    @Test
+    void updateUser_unchangedRoleAndActive_keepsTokens() {
+        // Arrange
+        User user = new User("USA", "a@example.com", "pw", User.Role.USER, "Mr.", null,
+                "someuser", "/pictures/profile.jpg", true);
+        user.setId(USER_ID);
+        UserDto dto = new UserDto(null, null, null, null, null, null, null, "USER", true);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // Act
+        userService.updateUser(USER_ID, dto);
+
+        // Assert
+        assertThat(user.getTokenVersion()).isZero();
+        verify(tokenRevocations, never()).revokeBefore(any(), anyInt());
+        verify(tokenRevocations, times(1)).setLocked(USER_ID, false);
     }
 
     @Test
@@ -172,7 +240,9 @@ class UserServiceTest {
         userService.deleteUser(USER_ID);
 
         // Assert
+        verify(refreshTokenService, times(1)).revokeAll(USER_ID);
         verify(userRepository, times(1)).delete(TEST_USER);
+        verify(tokenRevocations, times(1)).setLocked(USER_ID, true);
     }
 
     @Test
@@ -187,6 +257,25 @@ class UserServiceTest {
                 .hasMessage("User not found with id: " + unknownId);
     }
 
+    @Test
+    void getAuthenticatedUserId_statelessPrincipal_readsIdWithoutQuery() {
+        // Arrange
+        AuthenticatedUser principal = new AuthenticatedUser(USER_ID, "testuser@example.com", "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+        try {
+            // Act
+            UUID result = userService.getAuthenticatedUserId();
+
+            // Assert
+            assertThat(result).isEqualTo(USER_ID);
+            verifyNoInteractions(userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
     @Test
     void findByEmail_returnsUser() {
         // Arrange
@@ -199,6 +288,20 @@ class UserServiceTest {
         assertThat(result).isPresent().contains(TEST_USER);
     }
 
+    @Test
+    void findByEmailOrUsername_usesSingleLookup() {
+        // Arrange
+        when(userRepository.findByEmailOrUsername("TestUser")).thenReturn(Optional.of(TEST_USER));
+
+        // Act
+        Optional<User> result = userService.findByEmailOrUsername("TestUser");
+
+        // Assert
+        assertThat(result).contains(TEST_USER);
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
     @Test
     void findByUsername_returnsUser() {
         // Arrange
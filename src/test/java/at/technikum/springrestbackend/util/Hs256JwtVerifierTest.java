@@ -0,0 +1,131 @@
+package at.technikum.springrestbackend.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Hs256JwtVerifierTest {
+
+    private static final byte[] SECRET =
+            "verysecretkey12345678901234567890".getBytes(StandardCharsets.UTF_8);
+    private static final long NOW = 1_700_000_000_000L;
+
+    private SecretKey secretKey;
+    private Hs256JwtVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        secretKey = Keys.hmacShaKeyFor(SECRET);
+        verifier = new Hs256JwtVerifier(SECRET);
+    }
+
+    @Test
+    void verify_validToken_returnsUsedClaims() {
+        // Arrange
+        String token = token(Map.of("sub", "testuser@example.com", "role", "ROLE_USER",
+                "uid", "0b3c2f4e-0000-4000-8000-000000000001", "ver", 3, "iat", NOW / 1000));
+
+        // Act
+        Claims claims = verifier.verify(token, NOW);
+
+        // Assert
+        assertThat(claims.getSubject()).isEqualTo("testuser@example.com");
+        assertThat(claims.get("role", String.class)).isEqualTo("ROLE_USER");
+        assertThat(claims.get(JwtUtil.USER_ID_CLAIM, String.class))
+                .isEqualTo("0b3c2f4e-0000-4000-8000-000000000001");
+        assertThat(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).isEqualTo(3);
+        assertThat(claims.getExpiration()).isEqualTo(new Date(NOW + 60_000));
+        assertThat(claims).doesNotContainKey("iat");
+    }
+
+    @Test
+    void verify_escapedAndNonAsciiSubject_isDecoded() {
+        // Arrange
+        String token = token(Map.of("sub", "J\u00fcrgen \"Jay\" M\u00fcller/ü", "role", "ROLE_USER"));
+
+        // Act
+        Claims claims = verifier.verify(token, NOW);
+
+        // Assert
+        assertThat(claims.getSubject()).isEqualTo("J\u00fcrgen \"Jay\" M\u00fcller/ü");
+    }
+
+    @Test
+    void verify_tamperedPayload_returnsNull() {
+        // Arrange
+        String[] parts = token(Map.of("sub", "user", "role", "ROLE_USER")).split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("{\"sub\":\"user\",\"role\":\"ROLE_ADMIN\",\"exp\":" + (NOW / 1000 + 60) + "}")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        Claims claims = verifier.verify(parts[0] + "." + forgedPayload + "." + parts[2], NOW);
+
+        // Assert
+        assertThat(claims).isNull();
+    }
+
+    @Test
+    void verify_tamperedSignature_returnsNull() {
+        // Arrange
+        String token = token(Map.of("sub", "user"));
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + token.charAt(token.length() - 1);
+
+        // Act & Assert
+        assertThat(verifier.verify(tampered, NOW)).isNull();
+    }
+
+    @Test
+    void verify_otherKey_returnsNull() {
+        // Arrange
+        String token = token(Map.of("sub", "user"));
+        Hs256JwtVerifier otherVerifier = new Hs256JwtVerifier(
+                "anothersecretkey1234567890123456789".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThat(otherVerifier.verify(token, NOW)).isNull();
+    }
+
+    @Test
+    void verify_expiredToken_returnsNull() {
+        // Arrange
+        String token = token(Map.of("sub", "user"));
+
+        // Act & Assert
+        assertThat(verifier.verify(token, NOW + 61_000)).isNull();
+    }
+
+    @Test
+    void verify_unsignedOrMalformedToken_returnsNull() {
+        // Arrange
+        String unsigned = Jwts.builder().setSubject("user")
+                .setExpiration(new Date(NOW + 60_000)).compact();
+
+        // Act & Assert
+        assertThat(verifier.verify(unsigned, NOW)).isNull();
+        assertThat(verifier.verify("this.is.not.a.valid.token", NOW)).isNull();
+        assertThat(verifier.verify("", NOW)).isNull();
+        assertThat(verifier.verify(null, NOW)).isNull();
+    }
+
+    private String token(Map<String, Object> claims) {
+        return Jwts.builder()
+                .addClaims(claims)
+                .setExpiration(new Date(NOW + 60_000))
+                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,30 @@
+package at.technikum.springrestbackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpValidatorsTest {
+
+    @Test
+    void eTag_isQuotedAndStable() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        // Act
+        String first = HttpValidators.eTag("id", updatedAt);
+        String second = HttpValidators.eTag("id", updatedAt);
+
+        // Assert
+        assertThat(first).startsWith("\"").endsWith("\"").isEqualTo(second);
+        assertThat(HttpValidators.eTag("id", updatedAt.plusSeconds(1))).isNotEqualTo(first);
+    }
+
+    @Test
+    void lastModified_nullTimestamp_returnsMinusOne() {
+        // Assert
+        assertThat(HttpValidators.lastModified(null)).isEqualTo(-1);
+    }
+}
@@ -10,7 +10,9 @@ import org.mockito.MockitoAnnotations;
 
 import javax.crypto.SecretKey;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -27,6 +29,7 @@ class JwtUtilTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         when(jwtProperties.getSecret()).thenReturn("verysecretkey12345678901234567890"); // Mock the secret
+        when(jwtProperties.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
         jwtUtil = new JwtUtil(jwtProperties);
         jwtUtil.init(); // Initialize the secretKey in JwtUtil
     }
@@ -43,6 +46,21 @@ class JwtUtilTest {
         assertThat(claims.get("role")).isEqualTo("ROLE_USER");
     }
 
+    @Test
+    void generateToken_withUserId_addsUserIdAndVersionClaims() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        String token = jwtUtil.generateToken(userId, "testuser@example.com", "USER", 3);
+
+        // Assert
+        Claims claims = jwtUtil.getClaims(token);
+        assertThat(claims.getSubject()).isEqualTo("testuser@example.com");
+        assertThat(claims.get(JwtUtil.USER_ID_CLAIM, String.class)).isEqualTo(userId.toString());
+        assertThat(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).isEqualTo(3);
+    }
+
     @Test
     void extractUsername_returnsCorrectUsername() {
         // Arrange
@@ -109,6 +127,25 @@ class JwtUtilTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    void verify_returnsClaimsForValidToken() {
+        // Arrange
+        String token = jwtUtil.generateToken("testuser", "USER");
+
+        // Act
+        Claims claims = jwtUtil.verify(token);
+
+        // Assert
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+    }
+
+    @Test
+    void verify_returnsNullForInvalidToken() {
+        // Act & Assert
+        assertThat(jwtUtil.verify("this.is.not.a.valid.token")).isNull();
+    }
+
     @Test
     void getClaims_throwsExceptionForInvalidToken() {
         // Arrange
@@ -119,5 +156,24 @@ class JwtUtilTest {
                 .isInstanceOf(io.jsonwebtoken.MalformedJwtException.class)
                 .hasMessageContaining("JWT strings must contain exactly 2 period characters");
     }
-}
 
+    @Test
+    void verify_withHs256Verifier_returnsSameClaims() {
+        // Arrange
+        when(jwtProperties.getVerifier()).thenReturn(JwtProperties.Verifier.HS256);
+        JwtUtil hs256JwtUtil = new JwtUtil(jwtProperties);
+        hs256JwtUtil.init();
+        UUID userId = UUID.randomUUID();
+        String token = hs256JwtUtil.generateToken(userId, "testuser@example.com", "ADMIN", 2);
+
+        // Act
+        Claims claims = hs256JwtUtil.verify(token);
+
+        // Assert
+        assertThat(claims.getSubject()).isEqualTo("testuser@example.com");
+        assertThat(claims.get("role", String.class)).isEqualTo("ROLE_ADMIN");
+        assertThat(claims.get(JwtUtil.USER_ID_CLAIM, String.class)).isEqualTo(userId.toString());
+        assertThat(claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class)).isEqualTo(2);
+        assertThat(hs256JwtUtil.verify("this.is.not.a.valid.token")).isNull();
+    }
+}
@@ -0,0 +1,63 @@
+package at.technikum.springrestbackend.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void first_usesSortOrder() {
+        // Act
+        ProductCursor cursor = ProductCursor.first(Sort.by(Sort.Direction.DESC, "name"));
+
+        // Assert
+        assertThat(cursor.property()).isEqualTo("name");
+        assertThat(cursor.direction()).isEqualTo(Sort.Direction.DESC);
+        assertThat(cursor.isFirst()).isTrue();
+    }
+
+    @Test
+    void first_unsorted_defaultsToId() {
+        // Act
+        ProductCursor cursor = ProductCursor.first(Sort.unsorted());
+
+        // Assert
+        assertThat(cursor.property()).isEqualTo("id");
+        assertThat(cursor.direction()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void first_unsupportedProperty_throwsIllegalArgumentException() {
+        // Assert
+        assertThatThrownBy(() -> ProductCursor.first(Sort.by("description")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported sort property: description");
+    }
+
+    @Test
+    void encodeAndDecode_roundTrips() {
+        // Arrange
+        ProductCursor cursor = new ProductCursor(
+                "name", Sort.Direction.ASC, UUID.randomUUID(), "Name|with|pipes");
+
+        // Act
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        // Assert
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.typedKey()).isEqualTo("Name|with|pipes");
+    }
+
+    @Test
+    void decode_garbage_throwsIllegalArgumentException() {
+        // Assert
+        assertThatThrownBy(() -> ProductCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}